@@ -2,6 +2,7 @@ plugins {
   id("java")
   id("org.jetbrains.kotlin.jvm") version "1.9.24"
   id("org.jetbrains.intellij") version "1.17.3"
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -24,6 +25,98 @@ dependencies {
   implementation("org.slf4j:slf4j-simple:2.0.7")
   implementation("org.projectlombok:lombok:1.18.28")
   annotationProcessor("org.projectlombok:lombok:1.18.28")
+  // The tests and benchmarks parse their sources with the platform's light test fixture
+  testImplementation("junit:junit:4.13.2")
+}
+
+// Rule throughput benchmarks under src/jmh, run with ./gradlew jmh. Reports files/sec per rule and detector and,
+// through the GC profiler, the bytes allocated per file (gc.alloc.rate.norm).
+configurations {
+  named("jmhImplementation") {
+    extendsFrom(testImplementation.get(), compileOnly.get())
+  }
+  named("jmhRuntimeOnly") {
+    extendsFrom(testRuntimeOnly.get())
+  }
+}
+
+jmh {
+  jmhVersion.set("1.37")
+  benchmarkMode.set(listOf("thrpt"))
+  timeUnit.set("s")
+  fork.set(1)
+  warmupIterations.set(3)
+  iterations.set(5)
+  profilers.set(listOf("gc"))
+  resultFormat.set("JSON")
+  // The light fixture needs the same IDE home, sandbox and class loader setup as the plugin's tests
+  jvmArgsAppend.addAll(provider { tasks.test.get().allJvmArgs })
+}
+
+// Compiles the bundled definition files into the binary form read by DefinitionsReader, so the plugin does not
+// have to parse JSON on its first scan. Keep the layout in sync with DefinitionsReader.
+val compileDefinitions by tasks.registering {
+  description = "Compiles the vulnerability and performance impact definitions into a compact binary format."
+  val configDir = layout.projectDirectory.dir("src/main/resources/config")
+  val outputDir = layout.buildDirectory.dir("generated/definitions")
+  inputs.files(configDir.file("vulnerabilities.json"), configDir.file("performance-impacts.json"))
+  outputs.dir(outputDir)
+
+  doLast {
+    val targetDir = outputDir.get().dir("config").asFile
+    targetDir.mkdirs()
+    writeDefinitions(configDir.file("vulnerabilities.json").asFile, targetDir.resolve("vulnerabilities.bin")) { out, definition ->
+      writeString(out, definition["id"])
+      writeString(out, definition["type"])
+      writeString(out, definition["description"])
+      writeStringList(out, definition["compliance"])
+      writeStringList(out, definition["recommendations"])
+      writeStringList(out, definition["performanceImpactDetails"])
+    }
+    writeDefinitions(configDir.file("performance-impacts.json").asFile, targetDir.resolve("performance-impacts.bin")) { out, impacts ->
+      writeString(out, impacts["id"])
+      writeString(out, impacts["type"])
+      writeStringList(out, impacts["recommendations"])
+      val options = impacts["performanceImpactOptions"] as List<*>?
+      out.writeInt(options?.size ?: -1)
+      options?.forEach { option ->
+        option as Map<*, *>
+        writeString(out, option["id"])
+        writeString(out, option["impactLevel"])
+        writeString(out, option["description"])
+        writeString(out, option["details"])
+      }
+    }
+  }
+}
+
+fun writeDefinitions(source: File, target: File, writeEntry: (java.io.DataOutputStream, Map<*, *>) -> Unit) {
+  val entries = groovy.json.JsonSlurper().parse(source) as List<*>
+  java.io.DataOutputStream(target.outputStream().buffered()).use { out ->
+    out.writeInt(0x53434446) // "SCDF"
+    out.writeShort(1)
+    out.writeInt(entries.size)
+    entries.forEach { writeEntry(out, it as Map<*, *>) }
+  }
+}
+
+fun writeString(out: java.io.DataOutputStream, value: Any?) {
+  out.writeBoolean(value != null)
+  if (value != null) {
+    out.writeUTF(value.toString())
+  }
+}
+
+fun writeStringList(out: java.io.DataOutputStream, value: Any?) {
+  val list = value as List<*>?
+  out.writeInt(list?.size ?: -1)
+  list?.forEach { writeString(out, it) }
+}
+
+sourceSets {
+  main {
+    resources.srcDir(compileDefinitions)
+  }
 }
 
 tasks {
@@ -36,6 +129,10 @@ tasks {
     kotlinOptions.jvmTarget = "17"
   }
 
+  named("jmh") {
+    dependsOn(prepareTestingSandbox)
+  }
+
   patchPluginXml {
     sinceBuild.set("241")
     untilBuild.set("241.*")
@@ -0,0 +1,42 @@
+package org.example.safecode.benchmark;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.JavaCodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.JavaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.testFramework.fixtures.TestFixtureBuilder;
+
+/**
+ * A light Java project with the annotation stubs of {@link JavaSourceGenerator}, shared by the iterations of
+ * a benchmark trial. Fixture setup and teardown run on the EDT; the benchmarks themselves only read PSI.
+ */
+final class BenchmarkFixture {
+    private final JavaCodeInsightTestFixture fixture;
+
+    BenchmarkFixture() {
+        TestFixtureBuilder<IdeaProjectTestFixture> builder = IdeaTestFixtureFactory.getFixtureFactory()
+                .createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_17, "safecode-benchmark");
+        fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(builder.getFixture());
+        EdtTestUtil.runInEdtAndWait(() -> {
+            fixture.setUp();
+            for (String stub : JavaSourceGenerator.STUBS) {
+                fixture.addClass(stub);
+            }
+        });
+    }
+
+    /**
+     * Adds a generated source to the project and returns its parsed file.
+     */
+    PsiFile addGeneratedFile(String className, int units) {
+        String text = JavaSourceGenerator.generate(className, units);
+        return EdtTestUtil.runInEdtAndGet(() -> fixture.addFileToProject("bench/" + className + ".java", text));
+    }
+
+    void tearDown() {
+        EdtTestUtil.runInEdtAndWait(fixture::tearDown);
+    }
+}
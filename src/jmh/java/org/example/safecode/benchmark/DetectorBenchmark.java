@@ -0,0 +1,117 @@
+package org.example.safecode.benchmark;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.example.safecode.detection.ScanContext;
+import org.example.safecode.detection.rules.sql_injection.detector.CriteriaApiInjectionDetector;
+import org.example.safecode.detection.rules.sql_injection.detector.NamedQueryDetector;
+import org.example.safecode.detection.rules.sql_injection.detector.NativeQueryDetector;
+import org.example.safecode.detection.rules.sql_injection.detector.PreparedStatementDetector;
+import org.example.safecode.detection.rules.sql_injection.detector.StoredProcedureDetector;
+import org.example.safecode.detection.rules.sql_injection.detector.TaintedQueryDetector;
+import org.example.safecode.detection.taint.TaintSummaryCache;
+import org.example.safecode.models.ScanResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Measures the SQL injection detectors on their own. The elements a detector is called for are collected once
+ * per trial, so one operation is one detector pass over all candidate elements of a file, without the cost
+ * of walking the tree. Throughput is in files per second, allocations per file are reported by {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+public class DetectorBenchmark {
+    @Param({"TaintedQuery", "NativeQuery", "NamedQuery", "CriteriaApi", "PreparedStatement", "StoredProcedure"})
+    public String detector;
+
+    @Param({"1", "10", "100"})
+    public int units;
+
+    private BenchmarkFixture fixture;
+    private PsiFile psiFile;
+    private Collection<PsiMethodCallExpression> calls;
+    private Collection<PsiAnnotation> annotations;
+    private Collection<PsiMethod> methods;
+
+    private final TaintedQueryDetector taintedQueryDetector = new TaintedQueryDetector();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture();
+        psiFile = fixture.addGeneratedFile("Generated" + units, units);
+        ReadAction.run(() -> {
+            calls = PsiTreeUtil.collectElementsOfType(psiFile, PsiMethodCallExpression.class);
+            annotations = PsiTreeUtil.collectElementsOfType(psiFile, PsiAnnotation.class);
+            methods = PsiTreeUtil.collectElementsOfType(psiFile, PsiMethod.class);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void detect(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            switch (detector) {
+                case "NativeQuery": {
+                    List<ScanResult> results = new ArrayList<>();
+                    for (PsiAnnotation annotation : annotations) {
+                        NativeQueryDetector.detectVulnerableNativeQuery(annotation, results, psiFile.getName());
+                    }
+                    blackhole.consume(results);
+                    break;
+                }
+                case "NamedQuery": {
+                    ScanContext context = new ScanContext(psiFile);
+                    for (PsiMethodCallExpression call : calls) {
+                        blackhole.consume(NamedQueryDetector.isNamedQueryInjection(call, context));
+                    }
+                    break;
+                }
+                case "CriteriaApi":
+                    for (PsiMethodCallExpression call : calls) {
+                        blackhole.consume(CriteriaApiInjectionDetector.isCriteriaApiInjection(call));
+                    }
+                    break;
+                case "PreparedStatement":
+                    for (PsiMethodCallExpression call : calls) {
+                        blackhole.consume(PreparedStatementDetector.isPreparedStatement(call));
+                    }
+                    break;
+                case "StoredProcedure":
+                    for (PsiMethodCallExpression call : calls) {
+                        blackhole.consume(StoredProcedureDetector.isDynamicStoredProcedure(call));
+                    }
+                    break;
+                case "TaintedQuery": {
+                    // Callee summaries outlive the scan; drop them to measure the analysis of the whole file
+                    TaintSummaryCache.getInstance(psiFile.getProject()).clear();
+                    ScanContext context = new ScanContext(psiFile);
+                    for (PsiMethod method : methods) {
+                        taintedQueryDetector.detectTaintedQueries(method, context);
+                    }
+                    blackhole.consume(context.getResults());
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown detector: " + detector);
+            }
+        });
+    }
+}
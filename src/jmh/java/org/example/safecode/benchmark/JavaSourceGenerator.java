@@ -0,0 +1,89 @@
+package org.example.safecode.benchmark;
+
+/**
+ * Generates Spring-style Java sources of a given size for the benchmarks. Every unit adds a controller
+ * method, a JDBC/JPA query built by concatenation, a native {@code @Query}, credential handling, logging,
+ * deserialization and an administrative action, so each rule and detector finds something to look at.
+ */
+final class JavaSourceGenerator {
+
+    /**
+     * Annotation and type stubs the generated sources refer to, so qualified names resolve in the light fixture.
+     */
+    static final String[] STUBS = {
+            "package org.springframework.web.bind.annotation; public @interface RestController {}",
+            "package org.springframework.web.bind.annotation; public @interface GetMapping { String[] value() default {}; }",
+            "package org.springframework.web.bind.annotation; public @interface PostMapping { String[] value() default {}; }",
+            "package org.springframework.security.access.prepost; public @interface PreAuthorize { String value(); }",
+            "package org.springframework.data.jpa.repository; public @interface Query { String value(); boolean nativeQuery() default false; }",
+            "package org.slf4j; public interface Logger { void info(String s, Object... a); void error(String s, Object... a); }",
+            "package org.slf4j; public class LoggerFactory { public static Logger getLogger(Class<?> c) { return null; } }",
+            "package javax.persistence; public interface EntityManager { Object createQuery(String q); Object createNativeQuery(String q); }",
+    };
+
+    private JavaSourceGenerator() {
+    }
+
+    /**
+     * Generates one compilation unit.
+     *
+     * @param className The simple name of the generated class, in package {@code bench}.
+     * @param units     The number of method groups to generate; the file grows linearly with it.
+     */
+    static String generate(String className, int units) {
+        StringBuilder source = new StringBuilder(units * 1400);
+        source.append("package bench;\n\n")
+                .append("import java.io.*;\n")
+                .append("import java.sql.*;\n")
+                .append("import org.slf4j.Logger;\n")
+                .append("import org.slf4j.LoggerFactory;\n")
+                .append("import org.springframework.data.jpa.repository.Query;\n")
+                .append("import org.springframework.security.access.prepost.PreAuthorize;\n")
+                .append("import org.springframework.web.bind.annotation.*;\n\n")
+                .append("@RestController\n")
+                .append("public class ").append(className).append(" {\n")
+                .append("    private static final Logger log = LoggerFactory.getLogger(").append(className).append(".class);\n")
+                .append("    private String password = \"hunter2\";\n")
+                .append("    private Connection connection;\n")
+                .append("    private javax.persistence.EntityManager entityManager;\n\n");
+        for (int i = 0; i < units; i++) {
+            appendUnit(source, i);
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static void appendUnit(StringBuilder source, int i) {
+        source.append("    @GetMapping(\"/users/").append(i).append("\")\n")
+                .append("    public String getUser").append(i).append("(String id) throws SQLException {\n")
+                .append("        String sql = \"SELECT * FROM users WHERE id = '\" + id + \"'\";\n")
+                .append("        ResultSet rs = connection.createStatement().executeQuery(\"SELECT name FROM users WHERE id = \" + id);\n")
+                .append("        log.info(\"Loaded user {} with password {}\", id, password);\n")
+                .append("        System.out.println(\"user \" + id);\n")
+                .append("        return sql;\n")
+                .append("    }\n\n")
+                .append("    @PreAuthorize(\"hasRole('ADMIN')\")\n")
+                .append("    @PostMapping(\"/users/").append(i).append("/delete\")\n")
+                .append("    public void deleteUser").append(i).append("(String id) {\n")
+                .append("        String query;\n")
+                .append("        query = \"DELETE FROM users WHERE id = \" + id;\n")
+                .append("        try {\n")
+                .append("            connection.prepareStatement(query).executeUpdate();\n")
+                .append("        } catch (SQLException e) {\n")
+                .append("            e.printStackTrace();\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    @Query(value = \"SELECT * FROM orders WHERE user_id = ?1\", nativeQuery = true)\n")
+                .append("    public Object findOrders").append(i).append("(String userId) {\n")
+                .append("        return entityManager.createNativeQuery(\"SELECT * FROM orders WHERE user_id = \" + userId);\n")
+                .append("    }\n\n")
+                .append("    public Object readState").append(i).append("(InputStream in) throws Exception {\n")
+                .append("        ObjectInputStream stream = new ObjectInputStream(in);\n")
+                .append("        return stream.readObject();\n")
+                .append("    }\n\n")
+                .append("    public boolean login").append(i).append("(String user, String pass) {\n")
+                .append("        String apiKey = \"sk_live_").append(i).append("\";\n")
+                .append("        password = pass;\n")
+                .append("        return pass.equals(password) && pass.length() > 4;\n")
+                .append("    }\n\n");
+    }
+}
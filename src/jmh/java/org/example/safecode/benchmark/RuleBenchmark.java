@@ -0,0 +1,87 @@
+package org.example.safecode.benchmark;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiFile;
+import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.rules.SoutDetectorRule;
+import org.example.safecode.detection.rules.broken_access_control.BrokenAccessControlRule;
+import org.example.safecode.detection.rules.broken_authentication.BrokenAuthenticationRule;
+import org.example.safecode.detection.rules.insecure_deserialization.InsecureDeserializationRule;
+import org.example.safecode.detection.rules.insuffient_loggin.InsufficientLoggingMonitoringRule;
+import org.example.safecode.detection.rules.security_miconfiguration.SecurityMisconfigurationRule;
+import org.example.safecode.detection.rules.sensitive_data_exposure.SensitiveDataExposureRule;
+import org.example.safecode.detection.rules.sql_injection.InjectionRule;
+import org.example.safecode.models.ScanResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * Measures {@link BaseRule#scan} of every rule on generated files of increasing size. One operation scans one
+ * file, so the throughput is in files per second; run with {@code -prof gc} (the default of the {@code jmh}
+ * task) to get the allocations per file as {@code gc.alloc.rate.norm}.
+ * <p>
+ * The file is parsed once per trial, as it is when the daemon or a rescan revisits an unchanged file; only
+ * the rule's own work is measured.
+ */
+@State(Scope.Benchmark)
+public class RuleBenchmark {
+    @Param({"InjectionRule", "BrokenAccessControlRule", "BrokenAuthenticationRule", "InsecureDeserializationRule",
+            "InsufficientLoggingMonitoringRule", "SecurityMisconfigurationRule", "SensitiveDataExposureRule",
+            "SoutDetectorRule"})
+    public String rule;
+
+    // Method groups per file: about 30, 300 and 3000 lines
+    @Param({"1", "10", "100"})
+    public int units;
+
+    private BenchmarkFixture fixture;
+    private BaseRule scanner;
+    private PsiFile psiFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture();
+        scanner = createRule(rule);
+        psiFile = fixture.addGeneratedFile("Generated" + units, units);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public List<ScanResult> scan() {
+        return ReadAction.compute(() -> scanner.scan(psiFile));
+    }
+
+    static BaseRule createRule(String name) {
+        switch (name) {
+            case "InjectionRule":
+                return new InjectionRule();
+            case "BrokenAccessControlRule":
+                return new BrokenAccessControlRule();
+            case "BrokenAuthenticationRule":
+                return new BrokenAuthenticationRule();
+            case "InsecureDeserializationRule":
+                return new InsecureDeserializationRule();
+            case "InsufficientLoggingMonitoringRule":
+                return new InsufficientLoggingMonitoringRule();
+            case "SecurityMisconfigurationRule":
+                return new SecurityMisconfigurationRule();
+            case "SensitiveDataExposureRule":
+                return new SensitiveDataExposureRule();
+            case "SoutDetectorRule":
+                return new SoutDetectorRule();
+            default:
+                throw new IllegalArgumentException("Unknown rule: " + name);
+        }
+    }
+}
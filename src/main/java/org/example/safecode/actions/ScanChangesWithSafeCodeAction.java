@@ -0,0 +1,35 @@
+package org.example.safecode.actions;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scans only the files changed in the local git repository since a base ref, e.g. before committing or
+ * opening a pull request.
+ */
+@Slf4j
+public class ScanChangesWithSafeCodeAction extends AnAction {
+    private static final String DEFAULT_BASE_REF = "HEAD";
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            log.error("Project is null.");
+            return;
+        }
+        String baseRef = Messages.showInputDialog(project,
+                "Scan files changed since (branch, tag or commit; HEAD for uncommitted changes):",
+                "Scan Changes with SafeCode", null, DEFAULT_BASE_REF, null);
+        if (baseRef == null || baseRef.isBlank()) {
+            return;
+        }
+        log.info("Starting scan of changes since {} with SafeCode for project: {}", baseRef, project.getName());
+        ProgressManager.getInstance().run(new ScanWithSafeCodeAction.ScanTask(project, baseRef.trim()));
+    }
+}
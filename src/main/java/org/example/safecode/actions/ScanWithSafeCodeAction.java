@@ -1,123 +1,212 @@
 package org.example.safecode.actions;
 
+import com.intellij.execution.ExecutionException;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.wm.ToolWindow;
-import com.intellij.openapi.wm.ToolWindowManager;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
 import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.actions.utils.ChangedFilesUtil;
 import org.example.safecode.actions.utils.DisplayResultsUtil;
 import org.example.safecode.actions.utils.FileScannerUtil;
+import org.example.safecode.detection.ParallelScanRunner;
 import org.example.safecode.detection.VulnerabilityDetectionEngine;
+import org.example.safecode.index.SpringEndpointIndex;
+import org.example.safecode.metrics.ScanProfile;
 import org.example.safecode.models.ScanResult;
-import org.example.safecode.performance.PerformanceAnalysisEngine;
+import org.example.safecode.models.ScanResultTable;
 import org.example.safecode.recomendations.RecommendationEngine;
-import org.example.safecode.ui.PluginToolWindow;
-import org.example.safecode.utils.PermitAllUrlExtractor;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class ScanWithSafeCodeAction extends AnAction {
-    private final Set<String> permitAllUrls = new HashSet<>();
 
     @Override
     public void actionPerformed(@NotNull AnActionEvent e) {
         Project project = e.getProject();
+        if (project == null) {
+            log.error("Project is null.");
+            return;
+        }
+        VirtualFile selectedFile = e.getData(CommonDataKeys.VIRTUAL_FILE);
         log.info("Starting scan with SafeCode for project: {}", project.getName());
+        ProgressManager.getInstance().run(new ScanTask(project, selectedFile));
+    }
 
-        // Step 1: Extract permitAll URLs from security configuration files
-        extractPermitAllUrls(project);
-
-        List<VirtualFile> javaFiles = FileScannerUtil.getFilesToScan(e, project);
-        if (javaFiles == null) {
-            log.warn("No Java files found to scan.");
-            return;
+    /**
+     * Runs the whole scan pipeline in the background so the IDE stays responsive and the scan can be cancelled.
+     */
+    static class ScanTask extends Task.Backgroundable {
+        private static final int MAX_LISTED_FILES = 20;
+
+        private final VirtualFile selectedFile;
+        private final String baseRef;
+        private ScanResultTable results;
+        private ScanProfile profile;
+        private Map<String, Integer> trippedRules = Map.of();
+        private Set<String> failedFiles = Set.of();
+        private int incompleteFileCount;
+        private CompletableFuture<Map<String, List<String>>> recommendations;
+        private boolean noFilesFound;
+        private String errorMessage;
+
+        ScanTask(@NotNull Project project, VirtualFile selectedFile) {
+            super(project, "Scanning with SafeCode", true);
+            this.selectedFile = selectedFile;
+            this.baseRef = null;
         }
 
-        Map<String, List<ScanResult>> resultsByFile = performScan(project, javaFiles);
-        if (resultsByFile == null) {
-            log.info("No vulnerabilities or compliance issues found.");
-            return;
+        /**
+         * Creates a task that only scans the files changed since the given git ref and the files depending on them.
+         */
+        ScanTask(@NotNull Project project, @NotNull String baseRef) {
+            super(project, "Scanning changes with SafeCode", true);
+            this.selectedFile = null;
+            this.baseRef = baseRef;
         }
 
-//        // Generate recommendations
-        generateRecommendations(resultsByFile);
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            Project project = getProject();
+
+            // Step 1: Extract permitAll URLs from security configuration files
+            indicator.setText("Collecting security configuration");
+            Set<String> permitAllUrls = extractPermitAllUrls(project);
+
+            indicator.setText("Collecting files to scan");
+            List<VirtualFile> javaFiles;
+            if (baseRef != null) {
+                try {
+                    javaFiles = ChangedFilesUtil.getChangedFilesToScan(project, baseRef);
+                } catch (ExecutionException e) {
+                    log.error("Could not collect changed files: {}", e.getMessage());
+                    errorMessage = e.getMessage();
+                    return;
+                }
+            } else {
+                javaFiles = ReadAction.compute(() -> FileScannerUtil.getFilesToScan(selectedFile, project));
+            }
+            if (javaFiles == null) {
+                log.warn("No Java files found to scan.");
+                noFilesFound = true;
+                return;
+            }
 
-        // Analyze performance impact
-        anlysePerformanceImpacts(resultsByFile);
-        // Display final results
-        DisplayResultsUtil.displayResults(project, resultsByFile);
-        log.info("Scan with SafeCode completed for project: {}", project.getName());
-    }
+            indicator.setText("Scanning " + javaFiles.size() + " files");
+            VulnerabilityDetectionEngine detectionEngine = new VulnerabilityDetectionEngine(project, permitAllUrls);
+            ParallelScanRunner runner = new ParallelScanRunner(project, detectionEngine);
+            Map<String, List<ScanResult>> resultsByFile = runner.scan(javaFiles, indicator);
+            profile = detectionEngine.getProfiler().snapshot();
+            trippedRules = detectionEngine.getRuleBudget().getTrippedRules();
+            failedFiles = runner.getFailedFiles();
+            incompleteFileCount = detectionEngine.getRuleBudget().getIncompleteFileCount();
+            if (resultsByFile.isEmpty()) {
+                return;
+            }
 
-    private static void anlysePerformanceImpacts(Map<String, List<ScanResult>> resultsByFile) {
-        PerformanceAnalysisEngine performanceAnalysisEngine = new PerformanceAnalysisEngine();
-        for (Map.Entry<String, List<ScanResult>> entry : resultsByFile.entrySet()) {
-            List<ScanResult> fileResults = entry.getValue();
-            List<ScanResult> scanResults = performanceAnalysisEngine.analyzePerformance(fileResults);
-            entry.setValue(scanResults);
+            List<ScanResult> allResults = getAllResults(resultsByFile);
+
+            // Request recommendations in the background; they are filled in once the service answers
+            indicator.checkCanceled();
+            indicator.setText("Requesting recommendations");
+            recommendations = new RecommendationEngine().fetchRecommendations(allResults);
+
+            // Keep the results in compact form; beans are only created for the result shown in the tool window
+            results = ScanResultTable.of(resultsByFile);
         }
-    }
 
-    private static void generateRecommendations(Map<String, List<ScanResult>> resultsByFile) {
-        RecommendationEngine recommendationEngine = new RecommendationEngine();
-        for (Map.Entry<String, List<ScanResult>> entry : resultsByFile.entrySet()) {
-            List<ScanResult> fileResults = entry.getValue();
-            List<ScanResult> scanResults = recommendationEngine.generateRecommendations(fileResults);
-            entry.setValue(scanResults);
+        @Override
+        public void onSuccess() {
+            if (errorMessage != null) {
+                JOptionPane.showMessageDialog(null, errorMessage, "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (noFilesFound) {
+                JOptionPane.showMessageDialog(null,
+                        "No Java or resources files found in the selected location.", "Info", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            if (profile != null && profile.fileCount() > 0) {
+                DisplayResultsUtil.displayProfile(profile);
+            }
+            if (!trippedRules.isEmpty()) {
+                JOptionPane.showMessageDialog(null,
+                        "These rules repeatedly exceeded their time budget and were skipped for the rest of the scan, "
+                                + "so their findings are incomplete: " + String.join(", ", trippedRules.keySet()),
+                        "Warning", JOptionPane.WARNING_MESSAGE);
+            }
+            if (!failedFiles.isEmpty() || incompleteFileCount > 0) {
+                JOptionPane.showMessageDialog(null, describeIncompleteScan(), "Warning", JOptionPane.WARNING_MESSAGE);
+            }
+            if (results == null) {
+                log.info("No vulnerabilities or compliance issues found.");
+                JOptionPane.showMessageDialog(null,
+                        "No vulnerabilities or compliance issues found.",
+                        "Info", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+
+            // Display final results
+            DisplayResultsUtil.displayResults(getProject(), results);
+            log.info("Scan with SafeCode completed for project: {}", getProject().getName());
+
+            if (recommendations != null) {
+                recommendations.thenAccept(fetched -> ApplicationManager.getApplication().invokeLater(() -> {
+                    RecommendationEngine.applyRecommendations(results, fetched);
+                    DisplayResultsUtil.refreshDetails();
+                }, getProject().getDisposed()));
+            }
         }
-    }
 
-    private Map<String, List<ScanResult>> performScan(Project project, List<VirtualFile> javaFiles) {
-        VulnerabilityDetectionEngine detectionEngine = new VulnerabilityDetectionEngine(project,permitAllUrls);
-        Map<String, List<ScanResult>> resultsByFile = new HashMap<>();
-        for (VirtualFile javaFile : javaFiles) {
-            PsiFile psiFile = PsiManager.getInstance(project).findFile(javaFile);
-            if (psiFile != null) {
-                log.info("Scanning file: {}", javaFile.getPath());
-                List<ScanResult> fileResults = detectionEngine.performScan(psiFile);
-                if (!fileResults.isEmpty()) {
-                    resultsByFile.put(javaFile.getPath(), fileResults);
-                    log.info("Found {} issues in file: {}", fileResults.size(), javaFile.getPath());
+        private String describeIncompleteScan() {
+            StringBuilder message = new StringBuilder();
+            if (incompleteFileCount > 0) {
+                message.append(incompleteFileCount)
+                        .append(" files were scanned without a rule that exceeded its time budget, so their findings are incomplete.\n");
+            }
+            if (!failedFiles.isEmpty()) {
+                message.append(failedFiles.size()).append(" files could not be scanned, see the IDE log for details:\n");
+                failedFiles.stream().sorted().limit(MAX_LISTED_FILES).forEach(path -> message.append(path).append('\n'));
+                if (failedFiles.size() > MAX_LISTED_FILES) {
+                    message.append("and ").append(failedFiles.size() - MAX_LISTED_FILES).append(" more");
                 }
             }
+            return message.toString().trim();
         }
 
-        if (resultsByFile.isEmpty()) {
-            JOptionPane.showMessageDialog(null,
-                    "No vulnerabilities or compliance issues found.",
-                    "Info", JOptionPane.INFORMATION_MESSAGE);
-            return null;
+        @Override
+        public void onCancel() {
+            log.info("Scan with SafeCode cancelled for project: {}", getProject().getName());
         }
-        return resultsByFile;
     }
 
-
-
+    private static List<ScanResult> getAllResults(Map<String, List<ScanResult>> resultsByFile) {
+        List<ScanResult> allResults = new ArrayList<>();
+        for (List<ScanResult> fileResults : resultsByFile.values()) {
+            allResults.addAll(fileResults);
+        }
+        return allResults;
+    }
 
     /**
-     * Extracts all permitAll URLs from the project's Spring Security configuration files.
+     * Looks up all permitAll URL patterns of the project's Spring Security configuration in the endpoint index,
+     * waiting for indexing to finish if necessary.
      */
-    private void extractPermitAllUrls(Project project) {
-        PermitAllUrlExtractor urlExtractor = new PermitAllUrlExtractor();
-
-        PsiManager psiManager = PsiManager.getInstance(project);
-        for (VirtualFile file : project.getBaseDir().getChildren()) {
-            PsiFile psiFile = psiManager.findFile(file);
-            if (psiFile != null) {
-                urlExtractor.extractPermitAllUrls(psiFile);
-            }
-        }
-
-        permitAllUrls.addAll(urlExtractor.getPermitAllUrls());
+    private static Set<String> extractPermitAllUrls(Project project) {
+        Set<String> permitAllUrls = DumbService.getInstance(project)
+                .runReadActionInSmartMode(() -> SpringEndpointIndex.getPermitAllPatterns(project));
         log.info("Extracted permitAll URLs: {}", permitAllUrls);
+        return permitAllUrls;
     }
-}
\ No newline at end of file
+}
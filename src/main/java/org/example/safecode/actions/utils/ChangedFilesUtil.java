@@ -0,0 +1,155 @@
+package org.example.safecode.actions.utils;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.util.ExecUtil;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.index.SpringEndpointIndex;
+import org.example.safecode.utils.ProjectConfigReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the files to scan for a diff-scoped scan: the files changed in the local git repository since a base
+ * ref, including uncommitted and untracked ones, plus the files whose findings depend on them. Today that is
+ * every controller when a changed file declares {@code permitAll()} matchers now or did at the base ref, or when
+ * a Java file was deleted, since the matchers decide which endpoints {@code BrokenAccessControlRule} reports and
+ * removing them must report the endpoints that lost their exemption. A change to the SafeCode config affects
+ * every file and falls back to a full scan.
+ */
+@Slf4j
+public class ChangedFilesUtil {
+
+    /**
+     * Collects the files to scan. Runs git and refreshes the VFS, so it must be called off the EDT and
+     * outside of a read action.
+     *
+     * @param project The current project.
+     * @param baseRef The git ref to compare with, e.g. {@code origin/main}; the merge base with HEAD is used.
+     * @return The files to scan, or null if there is nothing to scan.
+     * @throws ExecutionException If git cannot be run or the ref cannot be resolved.
+     */
+    public static @Nullable List<VirtualFile> getChangedFilesToScan(@NotNull Project project, @NotNull String baseRef)
+            throws ExecutionException {
+        VirtualFile projectDir = project.getBaseDir();
+        if (projectDir == null) {
+            return null;
+        }
+        String gitRoot = runGit(projectDir.getPath(), "rev-parse", "--show-toplevel").trim();
+        String mergeBase = runGit(gitRoot, "merge-base", baseRef, "HEAD").trim();
+
+        List<String> changedPaths = new ArrayList<>();
+        // Committed and uncommitted changes since the merge base, without deleted files. Renames are listed as a
+        // deletion and an addition, so the old path of a renamed file counts as deleted
+        changedPaths.addAll(splitPaths(runGit(gitRoot, "diff", "--name-only", "-z", "--no-renames", "--diff-filter=d", mergeBase)));
+        changedPaths.addAll(splitPaths(runGit(gitRoot, "ls-files", "--others", "--exclude-standard", "-z")));
+        log.info("{} files changed since {} ({})", changedPaths.size(), baseRef, mergeBase);
+        List<String> deletedPaths = splitPaths(runGit(gitRoot, "diff", "--name-only", "-z", "--no-renames", "--diff-filter=D", mergeBase));
+        boolean controllersAffected = affectsPermitAllAtBase(gitRoot, mergeBase, changedPaths, deletedPaths);
+
+        Set<VirtualFile> filesToScan = new LinkedHashSet<>();
+        for (String path : changedPaths) {
+            VirtualFile file = LocalFileSystem.getInstance().refreshAndFindFileByPath(gitRoot + "/" + path);
+            if (file == null || file.isDirectory() || !VfsUtilCore.isAncestor(projectDir, file, false)) {
+                continue;
+            }
+            if (ProjectConfigReader.CONFIG_FILE_NAME.equals(file.getName())) {
+                log.info("SafeCode config changed, scanning the whole project");
+                return ReadAction.compute(() -> FileScannerUtil.getFilesToScan(null, project));
+            }
+            if (FileScannerUtil.isScannable(file)) {
+                filesToScan.add(file);
+            }
+        }
+
+        // Controllers are affected by changes to the permitAll matchers of the security configuration
+        Set<VirtualFile> dependents = DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+            if (controllersAffected) {
+                return SpringEndpointIndex.getFiles(project, SpringEndpointIndex.ENDPOINT);
+            }
+            for (VirtualFile file : filesToScan) {
+                if (SpringEndpointIndex.declares(project, file, SpringEndpointIndex.PERMIT_ALL)) {
+                    log.info("Security configuration {} changed, including all controllers", file.getPath());
+                    return SpringEndpointIndex.getFiles(project, SpringEndpointIndex.ENDPOINT);
+                }
+            }
+            return Set.<VirtualFile>of();
+        });
+        filesToScan.addAll(dependents);
+
+        if (filesToScan.isEmpty()) {
+            log.warn("No changed Java or resources files found since {}.", baseRef);
+            return null;
+        }
+        return new ArrayList<>(filesToScan);
+    }
+
+    /**
+     * Checks whether the change may have removed permitAll matchers, which the index of the current tree cannot
+     * tell: a deleted Java file, or a changed or deleted file that mentioned {@code permitAll} at the base ref.
+     */
+    private static boolean affectsPermitAllAtBase(String gitRoot, String mergeBase, List<String> changedPaths,
+                                                  List<String> deletedPaths) throws ExecutionException {
+        for (String path : deletedPaths) {
+            if (path.endsWith(".java")) {
+                log.info("Java file {} deleted, including all controllers", path);
+                return true;
+            }
+        }
+        // One git grep over the base tree instead of a git show per changed file; exit code 1 means no match
+        GeneralCommandLine commandLine = new GeneralCommandLine("git")
+                .withParameters("grep", "-l", "-z", "--fixed-strings", "permitAll", mergeBase, "--", "*.java")
+                .withWorkDirectory(gitRoot)
+                .withCharset(StandardCharsets.UTF_8);
+        ProcessOutput output = ExecUtil.execAndGetOutput(commandLine);
+        if (output.getExitCode() > 1) {
+            throw new ExecutionException("git grep failed: " + output.getStderr().trim());
+        }
+        Set<String> touched = new LinkedHashSet<>(changedPaths);
+        touched.addAll(deletedPaths);
+        String prefix = mergeBase + ":";
+        for (String match : splitPaths(output.getStdout())) {
+            String path = match.startsWith(prefix) ? match.substring(prefix.length()) : match;
+            if (touched.contains(path)) {
+                log.info("{} declared permitAll matchers at {}, including all controllers", path, mergeBase);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> splitPaths(String output) {
+        List<String> paths = new ArrayList<>();
+        for (String path : output.split("\0")) {
+            if (!path.isEmpty()) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    private static String runGit(String workDirectory, String... parameters) throws ExecutionException {
+        GeneralCommandLine commandLine = new GeneralCommandLine("git")
+                .withParameters(parameters)
+                .withWorkDirectory(workDirectory)
+                .withCharset(StandardCharsets.UTF_8);
+        ProcessOutput output = ExecUtil.execAndGetOutput(commandLine);
+        if (output.getExitCode() != 0) {
+            throw new ExecutionException("git " + String.join(" ", parameters) + " failed: " + output.getStderr().trim());
+        }
+        return output.getStdout();
+    }
+}
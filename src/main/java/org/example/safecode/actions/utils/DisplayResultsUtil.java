@@ -4,22 +4,20 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import lombok.extern.slf4j.Slf4j;
-import org.example.safecode.models.ScanResult;
+import org.example.safecode.metrics.ScanProfile;
+import org.example.safecode.models.ScanResultTable;
 import org.example.safecode.ui.PluginToolWindow;
 
-import java.util.List;
-import java.util.Map;
-
 @Slf4j
 public class DisplayResultsUtil {
 
-    public static void displayResults(Project project, Map<String, List<ScanResult>> resultsByFile) {
+    public static void displayResults(Project project, ScanResultTable results) {
         // Display the scan results grouped by file in the SafeCode plugin tool window
         ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow("SafeCode Plugin Results");
         if (toolWindow != null) {
             PluginToolWindow pluginToolWindow = PluginToolWindow.getInstance();
             if (pluginToolWindow != null) {
-                pluginToolWindow.setScanResults(resultsByFile);
+                pluginToolWindow.setScanResults(results);
                 if (!toolWindow.isVisible()) {
                     toolWindow.activate(null); // Automatically open the tool window
                 }
@@ -27,4 +25,24 @@ public class DisplayResultsUtil {
             }
         }
     }
+
+    /**
+     * Updates the "Scan Profile" tab with the cost of the last scan, without bringing the tool window up.
+     */
+    public static void displayProfile(ScanProfile profile) {
+        PluginToolWindow pluginToolWindow = PluginToolWindow.getInstance();
+        if (pluginToolWindow != null) {
+            pluginToolWindow.setScanProfile(profile);
+        }
+    }
+
+    /**
+     * Re-renders the details of the selected result, e.g. after its recommendations arrived.
+     */
+    public static void refreshDetails() {
+        PluginToolWindow pluginToolWindow = PluginToolWindow.getInstance();
+        if (pluginToolWindow != null) {
+            pluginToolWindow.refreshDetails();
+        }
+    }
 }
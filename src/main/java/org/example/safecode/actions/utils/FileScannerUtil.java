@@ -1,35 +1,31 @@
 package org.example.safecode.actions.utils;
 
-import com.intellij.openapi.actionSystem.AnActionEvent;
-import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.swing.*;
 import java.util.*;
 
 @Slf4j
 public class FileScannerUtil {
 
-    public static @Nullable List<VirtualFile> getFilesToScan(@NotNull AnActionEvent e, Project project) {
-        System.out.println("called-----------------------------------------------");
-        if (project == null) {
-            log.error("Project is null.");
-            return null;
-        }
-
-        VirtualFile virtualFile = e.getData(CommonDataKeys.VIRTUAL_FILE);
-
+    /**
+     * Collects the files to scan for the current selection. Runs off the EDT, so it must not show any UI.
+     *
+     * @param virtualFile The selected file or directory, or null to scan the whole project.
+     * @param project     The current project.
+     * @return The files to scan, or null if there is nothing to scan.
+     */
+    public static @Nullable List<VirtualFile> getFilesToScan(@Nullable VirtualFile virtualFile, @NotNull Project project) {
         // Use a Set to track unique files and avoid duplicates
         Set<VirtualFile> filesToScanSet = new HashSet<>();
         if (virtualFile != null && virtualFile.isDirectory()) {
             // If a directory is selected, collect all files in the directory
             log.info("Collecting files from directory: {}", virtualFile.getPath());
             collectJavaFiles(virtualFile, filesToScanSet);
-        } else if (virtualFile != null && ("java".equals(virtualFile.getExtension()) || "properties".equals(virtualFile.getExtension()) || "yml".equals(virtualFile.getExtension()))) {
+        } else if (virtualFile != null && isScannable(virtualFile)) {
             // If a single file is selected, add it to the set
             log.info("Adding single file to scan: {}", virtualFile.getPath());
             filesToScanSet.add(virtualFile);
@@ -53,14 +49,20 @@ public class FileScannerUtil {
         List<VirtualFile> filesToScan = new ArrayList<>(filesToScanSet);
 
         if (filesToScan.isEmpty()) {
-            JOptionPane.showMessageDialog(null,
-                    "No Java or resources files found in the selected location.", "Info", JOptionPane.INFORMATION_MESSAGE);
+            log.warn("No Java or resources files found in the selected location.");
             return null;
         }
 
         return filesToScan;
     }
 
+    /**
+     * Checks whether the file is of a type SafeCode scans: Java sources, .properties and YAML files.
+     */
+    public static boolean isScannable(@NotNull VirtualFile file) {
+        return "java".equals(file.getExtension()) || "properties".equals(file.getExtension()) || "yml".equals(file.getExtension());
+    }
+
     private  static void collectJavaFiles(VirtualFile directory, Set<VirtualFile> files) {
         for (VirtualFile file : directory.getChildren()) {
             // Skip the 'target' directory to avoid duplicates
@@ -72,7 +74,7 @@ public class FileScannerUtil {
             if (file.isDirectory()) {
                 // Recursively scan subdirectories
                 collectJavaFiles(file, files);
-            } else if ("java".equals(file.getExtension()) || "properties".equals(file.getExtension()) || "yml".equals(file.getExtension())) {
+            } else if (isScannable(file)) {
                 // Include Java, properties, and YAML files, avoiding duplicates
                 if (files.add(file)) {
                     log.info("File added to scan: {}", file.getPath());
@@ -2,7 +2,9 @@ package org.example.safecode.compliance;
 
 import com.intellij.psi.PsiFile;
 import org.example.safecode.compliance.hippa.HIPAAComplianceRule;
-import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.RuleBudget;
+import org.example.safecode.detection.rules.LegacyRule;
+import org.example.safecode.metrics.ScanProfiler;
 import org.example.safecode.models.ProjectConfig;
 import org.example.safecode.models.ScanResult;
 
@@ -10,7 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class IndustryComplianceChecker {
-    private final List<BaseRule> complianceRules;
+    private final List<LegacyRule> complianceRules;
 
     public IndustryComplianceChecker() {
         this.complianceRules = List.of(
@@ -20,21 +22,34 @@ public class IndustryComplianceChecker {
         );
     }
 
-    public List<ScanResult> checkCompliance(PsiFile psiFile, ProjectConfig config) {
+    /**
+     * Returns every compliance rule, so the profiler can attribute their cost next to the vulnerability rules.
+     */
+    public List<LegacyRule> getComplianceRules() {
+        return complianceRules;
+    }
+
+    /**
+     * Runs the compliance rules the project requires on the file.
+     *
+     * @param ruleBudget The budget of the scan session, which stops a rule that runs too long on the file.
+     * @param probe      The probe of the file the time and findings of each rule are recorded on.
+     */
+    public List<ScanResult> checkCompliance(PsiFile psiFile, ProjectConfig config, RuleBudget ruleBudget,
+                                            ScanProfiler.FileProbe probe) {
         List<ScanResult> results = new ArrayList<>();
         // Get the file path from the PsiFile
         String filePath = psiFile.getVirtualFile().getPath();
 
-
-        System.out.println("in check compliance");
         // Filter rules based on the project's compliance requirements
-        List<BaseRule> applicableRules = complianceRules.stream()
+        List<LegacyRule> applicableRules = complianceRules.stream()
                 .filter(rule -> config.getComplianceRequirements()
                         .contains(rule.getComplianceType().name()))
                 .toList();
 
-        for (BaseRule rule : applicableRules) {
-            for (ScanResult result : rule.scan(psiFile)) {
+        for (LegacyRule rule : applicableRules) {
+            List<ScanResult> ruleResults = ruleBudget.scan(rule, psiFile, filePath, probe);
+            for (ScanResult result : ruleResults) {
                 results.add(ScanResult.builder()
                         .message(result.getMessage())
                         .lineNumber(result.getLineNumber())
@@ -1,13 +1,13 @@
 package org.example.safecode.compliance;
 
 import com.intellij.psi.PsiFile;
-import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.rules.LegacyRule;
 import org.example.safecode.enums.ComplianceType;
 import org.example.safecode.models.ScanResult;
 
 import java.util.List;
 
-public class PCIDSSComplianceRule extends BaseRule {
+public class PCIDSSComplianceRule extends LegacyRule {
 
     @Override
     public ComplianceType getComplianceType() {
@@ -2,28 +2,17 @@ package org.example.safecode.compliance.hippa;
 
 import com.intellij.psi.*;
 import org.example.safecode.enums.VulnerabilityType;
+import org.example.safecode.utils.KeywordListLoader;
+import org.example.safecode.utils.KeywordMatcher;
 
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 public class EncryptionCompliance {
 
-        private static final Set<String> PHI_KEYWORDS = Set.of(
-                "FullName", "FirstName", "LastName", "MiddleName", "FName", "LName", "MName",
-                "SocialSecurityNumber", "SSN", "MedicalRecordNumber", "MRN",
-                "HealthInsurancePolicy", "SubscriberNumber", "PolicyNumber",
-                "DateofBirth", "DOB", "BirthDate", "BirthDay",
-                "Address", "HomeAddress", "MailingAddress", "PhoneNumber", "MobileNumber", "EmailAddress",
-                "LabTestResults", "TestResults", "LabResults", "Diagnoses", "MedicalConditions",
-                "PatientID", "PatientIdentifier", "InsuranceID", "InsuranceIdentifier",
-                "Patient", "Record", "Clinical", "Medical", "Doctor", "Nurse", "Prescription",
-                "Treatment", "Healthcare", "Diagnosis", "Hospital", "Coverage", "Emergency"
-        );
-
-        private static final Pattern PHI_METHOD_NAME_PATTERN = Pattern.compile(
-                ".*(" + String.join("|", PHI_KEYWORDS) + ").*", Pattern.CASE_INSENSITIVE
-        );
+        // PHI-related keywords, matched case-insensitively anywhere in the method name
+        private static final KeywordMatcher PHI_KEYWORDS =
+                KeywordMatcher.ignoringCase(KeywordListLoader.getKeywords(KeywordListLoader.PHI_KEYWORDS));
 
         /**
          * Checks if the given method name contains PHI-related keywords.
@@ -32,8 +21,7 @@ public class EncryptionCompliance {
          * @return true if the method name contains PHI-related keywords, false otherwise.
          */
         public static boolean isPHIMethodName(String methodName) {
-            boolean matches = PHI_METHOD_NAME_PATTERN.matcher(methodName).matches();
-            return matches;
+            return PHI_KEYWORDS.containsAny(methodName);
         }
 
 
@@ -1,7 +1,7 @@
 package org.example.safecode.compliance.hippa;
 
 import com.intellij.psi.*;
-import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.rules.LegacyRule;
 import org.example.safecode.enums.ComplianceType;
 import org.example.safecode.enums.VulnerabilitySeverity;
 import org.example.safecode.enums.VulnerabilityType;
@@ -12,7 +12,7 @@ import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 import java.util.ArrayList;
 import java.util.List;
 
-public class HIPAAComplianceRule extends BaseRule {
+public class HIPAAComplianceRule extends LegacyRule {
 
     @Override
     public ComplianceType getComplianceType() {
@@ -37,7 +37,6 @@ public class HIPAAComplianceRule extends BaseRule {
                 if (EncryptionCompliance.isPHIMethodName(method.getName())) {
                     // Check if the method contains data persistence operations
                     if (EncryptionCompliance.containsDataPersistenceOperations(method)) {
-                        System.out.println("----------------- contains save");
                         // Check if the data being persisted is encrypted
                         method.accept(new JavaRecursiveElementVisitor() {
                             @Override
@@ -46,7 +45,6 @@ public class HIPAAComplianceRule extends BaseRule {
 
                                 if (EncryptionCompliance.isDataPersistenceMethod(expression) &&
                                         !EncryptionCompliance.isStrongEncryption(expression)) {
-                                    System.out.println("----------------- contains save 2");
                                     int lineNumber = getLineNumber(expression);
                                     VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("1001");
                                     results.add(ScanResult.builder()
@@ -0,0 +1,78 @@
+package org.example.safecode.detection;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reports the files of a project that change on disk or in the editor, so the caches of scan data can evict
+ * what was computed from them.
+ */
+public final class FileChangeListener {
+
+    private FileChangeListener() {
+    }
+
+    /**
+     * Calls the consumer with every file or directory a VFS event touches and every file whose PSI changes.
+     *
+     * @param parent Disposing it stops the notifications.
+     */
+    public static void subscribe(Project project, Disposable parent, Consumer<VirtualFile> onChange) {
+        project.getMessageBus().connect(parent).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    VirtualFile file = event.getFile();
+                    if (file != null) {
+                        onChange.accept(file);
+                    }
+                }
+            }
+        });
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            private void changed(PsiTreeChangeEvent event) {
+                PsiFile psiFile = event.getFile();
+                if (psiFile != null && psiFile.getVirtualFile() != null) {
+                    onChange.accept(psiFile.getVirtualFile());
+                }
+            }
+        }, parent);
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.safecode.detection;
+
+import com.intellij.psi.*;
+import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.rules.LegacyRule;
+import org.example.safecode.enums.NodeKind;
+import org.example.safecode.models.ScanResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walks each file's PSI tree exactly once and dispatches every node to the rules that registered
+ * interest in its kind, instead of letting every rule run its own recursive visitor.
+ */
+public class FusedVisitorEngine {
+    private static final BaseRule[] NO_RULES = new BaseRule[0];
+
+    private final List<LegacyRule> legacyRules = new ArrayList<>();
+    private final Map<NodeKind, BaseRule[]> dispatch = new EnumMap<>(NodeKind.class);
+
+    /**
+     * Builds the dispatch table for the given rules. A {@link LegacyRule} is run through its own
+     * {@link LegacyRule#scan(PsiFile)} implementation.
+     *
+     * @throws IllegalArgumentException If a rule that is not a {@link LegacyRule} declares no interests; it
+     *                                  would never be called.
+     */
+    public FusedVisitorEngine(List<? extends BaseRule> rules) {
+        Map<NodeKind, List<BaseRule>> byKind = new EnumMap<>(NodeKind.class);
+        for (BaseRule rule : rules) {
+            if (rule instanceof LegacyRule legacyRule) {
+                legacyRules.add(legacyRule);
+                continue;
+            }
+            if (rule.getInterests().isEmpty()) {
+                throw new IllegalArgumentException(rule.getClass().getSimpleName()
+                        + " declares no interests and does not extend LegacyRule");
+            }
+            for (NodeKind kind : rule.getInterests()) {
+                byKind.computeIfAbsent(kind, k -> new ArrayList<>()).add(rule);
+            }
+        }
+        for (NodeKind kind : NodeKind.values()) {
+            List<BaseRule> interested = byKind.get(kind);
+            dispatch.put(kind, interested == null ? NO_RULES : interested.toArray(NO_RULES));
+        }
+    }
+
+    /**
+     * Scans a single file with all rules of this engine.
+     *
+     * @param psiFile The file to scan.
+     * @return All findings reported by the rules.
+     */
+    public List<ScanResult> scan(PsiFile psiFile) {
+        ScanContext context = new ScanContext(psiFile);
+        scan(psiFile, context);
+        return context.getResults();
+    }
+
+    /**
+     * Scans a single file, reporting findings into the given context.
+     */
+    public void scan(PsiFile psiFile, ScanContext context) {
+        for (LegacyRule rule : legacyRules) {
+            long start = context.ruleStarted(rule);
+            for (ScanResult result : rule.scan(psiFile)) {
+                context.report(psiFile, result);
+            }
+            context.ruleFinished(start);
+        }
+
+        for (BaseRule rule : dispatch.get(NodeKind.FILE)) {
+            long start = context.ruleStarted(rule);
+            rule.visitFile(psiFile, context);
+            context.ruleFinished(start);
+        }
+        // Only Java trees carry nodes the rules subscribe to; key/value files are handled by FILE callbacks
+        if (psiFile instanceof PsiJavaFile) {
+            walk(psiFile, context);
+        }
+    }
+
+    /**
+     * Walks the subtree rooted at the given element once, dispatching to the interested rules.
+     */
+    public void walk(PsiElement root, ScanContext context) {
+        root.accept(new FusedVisitor(context));
+    }
+
+    private class FusedVisitor extends JavaRecursiveElementVisitor {
+        private final ScanContext context;
+
+        FusedVisitor(ScanContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void visitElement(@NotNull PsiElement element) {
+            context.nodeVisited();
+            super.visitElement(element);
+        }
+
+        @Override
+        public void visitClass(@NotNull PsiClass aClass) {
+            for (BaseRule rule : dispatch.get(NodeKind.CLASS)) {
+                long start = context.ruleStarted(rule);
+                rule.visitClass(aClass, context);
+                context.ruleFinished(start);
+            }
+            super.visitClass(aClass);
+        }
+
+        @Override
+        public void visitMethod(@NotNull PsiMethod method) {
+            for (BaseRule rule : dispatch.get(NodeKind.METHOD)) {
+                long start = context.ruleStarted(rule);
+                rule.visitMethod(method, context);
+                context.ruleFinished(start);
+            }
+            context.enterMethod(method);
+            try {
+                super.visitMethod(method);
+            } finally {
+                context.exitMethod();
+            }
+            for (BaseRule rule : dispatch.get(NodeKind.METHOD_EXIT)) {
+                long start = context.ruleStarted(rule);
+                rule.leaveMethod(method, context);
+                context.ruleFinished(start);
+            }
+        }
+
+        @Override
+        public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+            for (BaseRule rule : dispatch.get(NodeKind.METHOD_CALL)) {
+                long start = context.ruleStarted(rule);
+                rule.visitMethodCall(expression, context);
+                context.ruleFinished(start);
+            }
+            super.visitMethodCallExpression(expression);
+        }
+
+        @Override
+        public void visitAssignmentExpression(@NotNull PsiAssignmentExpression expression) {
+            for (BaseRule rule : dispatch.get(NodeKind.ASSIGNMENT)) {
+                long start = context.ruleStarted(rule);
+                rule.visitAssignment(expression, context);
+                context.ruleFinished(start);
+            }
+            super.visitAssignmentExpression(expression);
+        }
+
+        @Override
+        public void visitField(@NotNull PsiField field) {
+            for (BaseRule rule : dispatch.get(NodeKind.FIELD)) {
+                long start = context.ruleStarted(rule);
+                rule.visitField(field, context);
+                context.ruleFinished(start);
+            }
+            super.visitField(field);
+        }
+
+        @Override
+        public void visitLocalVariable(@NotNull PsiLocalVariable variable) {
+            for (BaseRule rule : dispatch.get(NodeKind.LOCAL_VARIABLE)) {
+                long start = context.ruleStarted(rule);
+                rule.visitLocalVariable(variable, context);
+                context.ruleFinished(start);
+            }
+            super.visitLocalVariable(variable);
+        }
+
+        @Override
+        public void visitVariable(@NotNull PsiVariable variable) {
+            for (BaseRule rule : dispatch.get(NodeKind.VARIABLE)) {
+                long start = context.ruleStarted(rule);
+                rule.visitVariable(variable, context);
+                context.ruleFinished(start);
+            }
+            super.visitVariable(variable);
+        }
+
+        @Override
+        public void visitAnnotation(@NotNull PsiAnnotation annotation) {
+            for (BaseRule rule : dispatch.get(NodeKind.ANNOTATION)) {
+                long start = context.ruleStarted(rule);
+                rule.visitAnnotation(annotation, context);
+                context.ruleFinished(start);
+            }
+            super.visitAnnotation(annotation);
+        }
+
+        @Override
+        public void visitImportStatement(@NotNull PsiImportStatement statement) {
+            for (BaseRule rule : dispatch.get(NodeKind.IMPORT)) {
+                long start = context.ruleStarted(rule);
+                rule.visitImport(statement, context);
+                context.ruleFinished(start);
+            }
+            super.visitImportStatement(statement);
+        }
+    }
+}
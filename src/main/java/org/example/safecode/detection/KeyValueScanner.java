@@ -0,0 +1,253 @@
+package org.example.safecode.detection;
+
+import com.intellij.psi.PsiFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tokenizes .properties and YAML files into key/value entries in a single pass over their characters,
+ * without building a PSI tree. YAML keys are reported with their full dotted path
+ * (e.g. {@code spring.datasource.password}); block scalars and flow collections are not interpreted.
+ */
+public final class KeyValueScanner {
+
+    /**
+     * A single key/value assignment.
+     *
+     * @param key        The (dotted) key.
+     * @param value      The value with surrounding quotes removed, possibly empty.
+     * @param line       The trimmed source line, for messages.
+     * @param lineNumber The 1-based line number the entry starts on.
+     */
+    public record Entry(String key, String value, String line, int lineNumber) {
+        /**
+         * Checks whether the value is a {@code ${...}} placeholder that is resolved at runtime.
+         */
+        public boolean isPlaceholder() {
+            int start = value.indexOf("${");
+            return start >= 0 && value.indexOf('}', start) > start;
+        }
+    }
+
+    private KeyValueScanner() {
+    }
+
+    public static boolean isPropertiesFile(PsiFile psiFile) {
+        return psiFile.getName().endsWith(".properties");
+    }
+
+    public static boolean isYamlFile(PsiFile psiFile) {
+        return psiFile.getName().endsWith(".yml") || psiFile.getName().endsWith(".yaml");
+    }
+
+    /**
+     * Scans the text of a key/value file. Uses the file's current contents (including unsaved edits)
+     * without parsing it. Files that are neither .properties nor YAML are ignored.
+     *
+     * @param psiFile  The file to scan.
+     * @param consumer Receives every entry in file order.
+     */
+    public static void scan(PsiFile psiFile, Consumer<Entry> consumer) {
+        CharSequence text = psiFile.getViewProvider().getContents();
+        if (isPropertiesFile(psiFile)) {
+            scanProperties(text, consumer);
+        } else if (isYamlFile(psiFile)) {
+            scanYaml(text, consumer);
+        }
+    }
+
+    /**
+     * Scans .properties syntax: {@code key=value}, {@code key: value} or {@code key value}, with {@code #}
+     * and {@code !} comments and backslash line continuations.
+     */
+    public static void scanProperties(CharSequence text, Consumer<Entry> consumer) {
+        int length = text.length();
+        int lineNumber = 0;
+        int pos = 0;
+        StringBuilder logicalLine = new StringBuilder();
+        int entryLineNumber = 0;
+        while (pos < length) {
+            int end = lineEnd(text, pos);
+            lineNumber++;
+            CharSequence physical = trim(text, pos, end);
+            pos = nextLineStart(text, end);
+
+            if (logicalLine.length() == 0) {
+                if (physical.length() == 0 || physical.charAt(0) == '#' || physical.charAt(0) == '!') {
+                    continue;
+                }
+                entryLineNumber = lineNumber;
+            }
+            if (endsWithContinuation(physical)) {
+                logicalLine.append(physical, 0, physical.length() - 1);
+                continue;
+            }
+            logicalLine.append(physical);
+            emitProperty(logicalLine.toString(), entryLineNumber, consumer);
+            logicalLine.setLength(0);
+        }
+        if (logicalLine.length() > 0) {
+            emitProperty(logicalLine.toString(), entryLineNumber, consumer);
+        }
+    }
+
+    /**
+     * Scans block-style YAML mappings and sequences of mappings, tracking indentation to build dotted keys.
+     */
+    public static void scanYaml(CharSequence text, Consumer<Entry> consumer) {
+        List<Integer> indents = new ArrayList<>();
+        List<String> path = new ArrayList<>();
+        int length = text.length();
+        int lineNumber = 0;
+        int pos = 0;
+        while (pos < length) {
+            int end = lineEnd(text, pos);
+            lineNumber++;
+            int start = pos;
+            pos = nextLineStart(text, end);
+
+            int indent = 0;
+            while (start + indent < end && text.charAt(start + indent) == ' ') {
+                indent++;
+            }
+            CharSequence content = trim(text, start + indent, end);
+            if (content.length() == 0 || content.charAt(0) == '#' || startsWith(content, "---")) {
+                continue;
+            }
+            // "- key: value" starts a mapping inside a sequence item, nested one level deeper
+            if (startsWith(content, "- ")) {
+                content = trim(content, 2, content.length());
+                indent += 2;
+            }
+            int colon = findYamlColon(content);
+            if (colon < 0) {
+                continue;
+            }
+
+            while (!indents.isEmpty() && indents.get(indents.size() - 1) >= indent) {
+                indents.remove(indents.size() - 1);
+                path.remove(path.size() - 1);
+            }
+            String key = unquote(trim(content, 0, colon).toString());
+            String value = stripYamlComment(trim(content, colon + 1, content.length()).toString());
+            indents.add(indent);
+            path.add(key);
+            if (!value.isEmpty()) {
+                consumer.accept(new Entry(String.join(".", path), unquote(value), content.toString(), lineNumber));
+            }
+        }
+    }
+
+    private static void emitProperty(String line, int lineNumber, Consumer<Entry> consumer) {
+        int separator = -1;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++; // Escaped character, part of the key
+            } else if (c == '=' || c == ':' || Character.isWhitespace(c)) {
+                separator = i;
+                break;
+            }
+        }
+        String key = separator < 0 ? line : line.substring(0, separator).trim();
+        String value = "";
+        if (separator >= 0) {
+            int valueStart = separator;
+            while (valueStart < line.length() && Character.isWhitespace(line.charAt(valueStart))) {
+                valueStart++;
+            }
+            if (valueStart < line.length() && (line.charAt(valueStart) == '=' || line.charAt(valueStart) == ':')) {
+                valueStart++;
+            }
+            value = line.substring(valueStart).trim();
+        }
+        consumer.accept(new Entry(key, value, line, lineNumber));
+    }
+
+    private static int findYamlColon(CharSequence content) {
+        char quote = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == ':' && (i + 1 == content.length() || content.charAt(i + 1) == ' ')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String stripYamlComment(String value) {
+        if (value.startsWith("\"") || value.startsWith("'")) {
+            int closingQuote = value.indexOf(value.charAt(0), 1);
+            return closingQuote > 0 ? value.substring(0, closingQuote + 1) : value;
+        }
+        int comment = value.indexOf(" #");
+        return comment >= 0 ? value.substring(0, comment).trim() : value;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2) {
+            char first = value.charAt(0);
+            char last = value.charAt(value.length() - 1);
+            if ((first == '"' || first == '\'') && first == last) {
+                return value.substring(1, value.length() - 1);
+            }
+        }
+        return value;
+    }
+
+    private static boolean endsWithContinuation(CharSequence line) {
+        int backslashes = 0;
+        for (int i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static boolean startsWith(CharSequence text, String prefix) {
+        if (text.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lineEnd(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int nextLineStart(CharSequence text, int lineEnd) {
+        if (lineEnd < text.length() && text.charAt(lineEnd) == '\r') {
+            lineEnd++;
+        }
+        if (lineEnd < text.length() && text.charAt(lineEnd) == '\n') {
+            lineEnd++;
+        }
+        return lineEnd;
+    }
+
+    private static CharSequence trim(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.subSequence(start, end);
+    }
+}
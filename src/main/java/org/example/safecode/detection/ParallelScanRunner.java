@@ -0,0 +1,236 @@
+package org.example.safecode.detection;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.detection.taint.TaintSummaryCache;
+import org.example.safecode.models.ScanResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Fans the files of a scan out over a bounded worker pool. Every file is analysed inside its own
+ * non-blocking read action, which a write action cancels and restarts, so typing is never blocked by a scan.
+ */
+@Slf4j
+public class ParallelScanRunner {
+    private static final int MAX_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final long UNKNOWN_HASH = Long.MIN_VALUE;
+
+    private final Project project;
+    private final VulnerabilityDetectionEngine detectionEngine;
+    private final ScanResultCache resultCache;
+    private final ScanResultStore resultStore;
+    private final Set<String> failedFiles = ConcurrentHashMap.newKeySet();
+
+    public ParallelScanRunner(Project project, VulnerabilityDetectionEngine detectionEngine) {
+        this(project, detectionEngine, true);
+    }
+
+    /**
+     * @param useCaches Whether to serve and keep findings in the {@link ScanResultCache} and {@link ScanResultStore}.
+     *                  One-off scans that stream their findings, like the headless scan, turn them off so findings
+     *                  are not retained in memory.
+     */
+    public ParallelScanRunner(Project project, VulnerabilityDetectionEngine detectionEngine, boolean useCaches) {
+        this.project = project;
+        this.detectionEngine = detectionEngine;
+        this.resultCache = useCaches ? ScanResultCache.getInstance(project) : null;
+        this.resultStore = useCaches ? ScanResultStore.getInstance(project) : null;
+    }
+
+    /**
+     * Returns the paths of the files whose scan failed with an error; their findings are missing.
+     */
+    public Set<String> getFailedFiles() {
+        return Set.copyOf(failedFiles);
+    }
+
+    /**
+     * Scans the given files in parallel.
+     *
+     * @param files     The files to scan.
+     * @param indicator The progress indicator of the surrounding task, used for progress and cancellation.
+     * @return The findings grouped by file path; files without findings are omitted.
+     */
+    public Map<String, List<ScanResult>> scan(List<VirtualFile> files, ProgressIndicator indicator) {
+        Map<String, List<ScanResult>> resultsByFile = new ConcurrentHashMap<>();
+        scan(files, indicator, (file, fileResults) -> resultsByFile.put(file.getPath(), fileResults));
+        return resultsByFile;
+    }
+
+    /**
+     * Scans the given files in parallel and hands the findings of every file to the consumer as soon as the file
+     * is done, so callers can stream them instead of collecting all of them first.
+     *
+     * @param files     The files to scan.
+     * @param indicator The progress indicator of the surrounding task, used for progress and cancellation.
+     * @param consumer  Receives the findings of every file that has any. Called concurrently from the worker
+     *                  threads, so it must be thread-safe.
+     */
+    public void scan(List<VirtualFile> files, ProgressIndicator indicator, BiConsumer<VirtualFile, List<ScanResult>> consumer) {
+        AtomicInteger scannedFiles = new AtomicInteger();
+        indicator.setIndeterminate(false);
+
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("SafeCode Scan", MAX_WORKERS);
+        List<Future<?>> futures = new ArrayList<>(files.size());
+        try {
+            for (VirtualFile file : files) {
+                futures.add(executor.submit(() -> {
+                    if (indicator.isCanceled()) {
+                        return;
+                    }
+                    // Non-blocking so a pending write action cancels and restarts the file instead of waiting for it,
+                    // and under the task's indicator so checkCanceled() in the rules sees the task being cancelled
+                    try {
+                        List<ScanResult> fileResults = ReadAction.nonBlocking(() -> scanFile(file))
+                                .wrapProgress(indicator)
+                                .executeSynchronously();
+                        if (!fileResults.isEmpty()) {
+                            consumer.accept(file, fileResults);
+                            log.info("Found {} issues in file: {}", fileResults.size(), file.getPath());
+                        }
+                    } catch (ProcessCanceledException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        failedFiles.add(file.getPath());
+                        log.error("Error scanning file {}: {}", file.getPath(), e.getMessage(), e);
+                    }
+                    // Failed files count as done, so the progress still reaches the end
+                    indicator.setText2(file.getPresentableUrl());
+                    indicator.setFraction((double) scannedFiles.incrementAndGet() / files.size());
+                }));
+            }
+            awaitAll(futures, indicator);
+        } finally {
+            executor.shutdownNow();
+            if (resultStore != null) {
+                resultStore.flush();
+            }
+        }
+    }
+
+    private List<ScanResult> scanFile(VirtualFile file) {
+        if (!file.isValid() || project.isDisposed()) {
+            return List.of();
+        }
+        if (resultCache == null) {
+            return scanPsi(file);
+        }
+        // Unchanged files are served from the cache without touching their PSI
+        long modificationStamp = ScanResultCache.getModificationStamp(file);
+        List<ScanResult> cachedResults = resultCache.get(file, modificationStamp, detectionEngine.getFingerprint());
+        if (cachedResults != null) {
+            log.debug("Using cached results for file: {}", file.getPath());
+            return cachedResults;
+        }
+
+        // Files unchanged since a previous IDE session are served from the on-disk store
+        long contentHash = computeContentHash(file);
+        List<ScanResult> storedResults = contentHash != UNKNOWN_HASH
+                ? resultStore.get(file, contentHash, detectionEngine.getFingerprint())
+                : null;
+        if (storedResults != null) {
+            log.debug("Using stored results for file: {}", file.getPath());
+            Map<VirtualFile, Long> dependencies = new HashMap<>();
+            for (VirtualFile dependency : resultStore.getDependencies(file)) {
+                dependencies.put(dependency, ScanResultCache.getModificationStamp(dependency));
+            }
+            resultCache.put(file, modificationStamp, detectionEngine.getFingerprint(), dependencies, storedResults);
+            return storedResults;
+        }
+
+        List<ScanResult> fileResults = scanPsi(file);
+        if (detectionEngine.getRuleBudget().isIncomplete(file.getPath())) {
+            // A rule ran out of time on this file; scan it again next time instead of caching partial findings
+            return fileResults;
+        }
+        // Taint findings go stale when a callee in another file changes, so the entries depend on those files too
+        Map<VirtualFile, Long> dependencies = TaintSummaryCache.getInstance(project).getDependencies(file);
+        resultCache.put(file, modificationStamp, detectionEngine.getFingerprint(), dependencies, fileResults);
+        Map<String, Long> dependencyHashes = contentHashesOf(dependencies);
+        if (contentHash != UNKNOWN_HASH && dependencyHashes != null) {
+            resultStore.put(file, contentHash, detectionEngine.getFingerprint(), dependencyHashes, fileResults);
+        }
+        return fileResults;
+    }
+
+    /**
+     * Returns the content hashes of the dependencies by path, or null if one of them cannot be read or changed
+     * since the findings were computed from it.
+     */
+    private Map<String, Long> contentHashesOf(Map<VirtualFile, Long> dependencies) {
+        Map<String, Long> hashes = new HashMap<>();
+        for (Map.Entry<VirtualFile, Long> dependency : dependencies.entrySet()) {
+            VirtualFile file = dependency.getKey();
+            long hash = ScanResultCache.getModificationStamp(file) == dependency.getValue()
+                    ? computeContentHash(file)
+                    : UNKNOWN_HASH;
+            if (hash == UNKNOWN_HASH) {
+                return null;
+            }
+            hashes.put(file.getPath(), hash);
+        }
+        return hashes;
+    }
+
+    private List<ScanResult> scanPsi(VirtualFile file) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (psiFile == null) {
+            return List.of();
+        }
+        log.debug("Scanning file: {}", file.getPath());
+        return detectionEngine.performScan(psiFile);
+    }
+
+    private long computeContentHash(VirtualFile file) {
+        try {
+            return ScanResultStore.computeContentHash(file);
+        } catch (IOException e) {
+            log.warn("Could not read file {}: {}", file.getPath(), e.getMessage());
+            return UNKNOWN_HASH;
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures, ProgressIndicator indicator) {
+        for (Future<?> future : futures) {
+            while (true) {
+                indicator.checkCanceled();
+                try {
+                    future.get(100, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException ignored) {
+                    // Poll again so a cancel request is noticed promptly
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ProcessCanceledException(e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) e.getCause();
+                    }
+                    log.error("Error scanning file: {}", e.getCause().getMessage(), e.getCause());
+                    break;
+                }
+            }
+        }
+    }
+}
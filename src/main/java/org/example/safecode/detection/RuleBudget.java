@@ -0,0 +1,367 @@
+package org.example.safecode.detection;
+
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.SensitiveProgressWrapper;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.rules.LegacyRule;
+import org.example.safecode.metrics.ScanProfiler;
+import org.example.safecode.models.ProjectConfig;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.utils.PermitAllPatterns;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the rules of a scan session under a time budget per rule and file, so one pathological file cannot stall
+ * the scan. A rule that spends more than the budget on a file is stopped, and the file is scanned again without
+ * it. Once a rule has overrun its budget {@link #getMaxOverruns()} times it is tripped: it is skipped for the rest
+ * of the scan and reported through {@link #getTrippedRules()}.
+ * <p>
+ * Rules are stopped cooperatively. Time spent in many short callbacks is checked after each callback; a single
+ * callback that runs too long is noticed by a watchdog shared by all files of the session, which cancels the
+ * progress indicator the file is scanned under. That makes the next {@code ProgressManager.checkCanceled()}, which PSI and search code call all the time,
+ * throw. That indicator wraps the one of the calling task, so cancelling the scan still stops a file mid-way.
+ * Findings of files a rule was skipped on are incomplete and must not be cached, see {@link #isIncomplete}.
+ */
+@Slf4j
+public final class RuleBudget {
+    static final long DEFAULT_BUDGET_MILLIS = 2000;
+    static final int DEFAULT_MAX_OVERRUNS = 3;
+    private static final String BUDGET_SETTING = "ruleTimeBudgetMs";
+    private static final String MAX_OVERRUNS_SETTING = "ruleMaxOverruns";
+    private static final long WATCHDOG_PERIOD_MILLIS = 50;
+
+    private final List<BaseRule> rules;
+    // The rules of the fused pass come first in rules, the ones that run on their own after them
+    private final int fusedRuleCount;
+    private final Map<BaseRule, Integer> ruleIndexes = new IdentityHashMap<>();
+    private final long budgetNanos;
+    private final int maxOverruns;
+    private final int[] overruns;
+    private final Set<BaseRule> tripped = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Set<String> incompleteFiles = ConcurrentHashMap.newKeySet();
+    private final FusedVisitorEngine fullEngine;
+    // Rebuilt whenever a rule trips, so tripped rules cost nothing on the remaining files
+    private volatile FusedVisitorEngine engine;
+    private final Set<FileGuard> activeGuards = ConcurrentHashMap.newKeySet();
+    private final Object watchdogLock = new Object();
+    // Runs while any file of the session is being scanned, guarded by watchdogLock
+    private ScheduledFuture<?> watchdog;
+
+    /**
+     * @param rules          The rules of the fused pass of the scan session.
+     * @param engine         The fused engine of those rules.
+     * @param separateRules  The rules of the session that run on their own after the fused pass, like the
+     *                       compliance rules, see {@link #scan(LegacyRule, PsiFile, String, ScanProfiler.FileProbe)}.
+     * @param config         The project config; {@code customSettings} may override the budget in milliseconds with
+     *                       {@value #BUDGET_SETTING} and the number of overruns with {@value #MAX_OVERRUNS_SETTING}.
+     */
+    public RuleBudget(List<BaseRule> rules, FusedVisitorEngine engine, List<? extends LegacyRule> separateRules,
+                      ProjectConfig config) {
+        List<BaseRule> allRules = new ArrayList<>(rules);
+        allRules.addAll(separateRules);
+        this.rules = List.copyOf(allRules);
+        this.fusedRuleCount = rules.size();
+        for (int i = 0; i < this.rules.size(); i++) {
+            ruleIndexes.put(this.rules.get(i), i);
+        }
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(getSetting(config, BUDGET_SETTING, DEFAULT_BUDGET_MILLIS));
+        this.maxOverruns = (int) getSetting(config, MAX_OVERRUNS_SETTING, DEFAULT_MAX_OVERRUNS);
+        this.overruns = new int[this.rules.size()];
+        this.fullEngine = engine;
+        this.engine = engine;
+    }
+
+    public long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    public int getMaxOverruns() {
+        return maxOverruns;
+    }
+
+    /**
+     * Returns the tripped rules with the number of times each overran its budget.
+     */
+    public synchronized Map<String, Integer> getTrippedRules() {
+        Map<String, Integer> trippedRules = new LinkedHashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            if (tripped.contains(rules.get(i))) {
+                trippedRules.put(rules.get(i).getClass().getSimpleName(), overruns[i]);
+            }
+        }
+        return trippedRules;
+    }
+
+    /**
+     * Checks whether a rule was stopped or skipped on the file, i.e. whether its findings may be incomplete.
+     */
+    public boolean isIncomplete(String filePath) {
+        return incompleteFiles.contains(filePath);
+    }
+
+    /**
+     * Returns the number of files a rule was stopped or skipped on.
+     */
+    public int getIncompleteFileCount() {
+        return incompleteFiles.size();
+    }
+
+    /**
+     * Scans a file with all rules that are not tripped, retrying without a rule whenever it overruns its budget.
+     *
+     * @return The context holding the findings of the last, complete run.
+     */
+    ScanContext scan(PsiFile psiFile, String filePath, PermitAllPatterns permitAllPatterns, ScanProfiler.FileProbe probe) {
+        FusedVisitorEngine current = engine;
+        if (current != fullEngine) {
+            incompleteFiles.add(filePath);
+        }
+        Set<BaseRule> skipped = new HashSet<>();
+        FileGuard guard = startGuarding();
+        try {
+            while (true) {
+                if (!skipped.isEmpty()) {
+                    probe.discardAttempt();
+                    guard.restart();
+                }
+                ScanContext context = new ScanContext(psiFile, permitAllPatterns, probe, guard);
+                BaseRule overrun;
+                try {
+                    FusedVisitorEngine scanEngine = current;
+                    ProgressManager.getInstance().executeProcessUnderProgress(() -> scanEngine.scan(psiFile, context), guard.indicator);
+                    return context;
+                } catch (BudgetExceededException e) {
+                    overrun = e.rule;
+                } catch (ProcessCanceledException e) {
+                    overrun = guard.getExpiredRule(e);
+                }
+                handleOverrun(overrun, filePath);
+                skipped.add(overrun);
+                current = engineWithout(skipped);
+            }
+        } finally {
+            stopGuarding(guard);
+        }
+    }
+
+    /**
+     * Runs a rule that is not part of the fused pass on a file under the same budget. A rule that overruns it is
+     * stopped and its findings on the file are dropped; a tripped rule is not run at all.
+     *
+     * @param rule  One of the separate rules this budget was created with.
+     * @param probe The probe of the file the time and findings of the rule are recorded on.
+     * @return The findings of the rule, or an empty list if it was stopped or skipped.
+     */
+    public List<ScanResult> scan(LegacyRule rule, PsiFile psiFile, String filePath, ScanProfiler.FileProbe probe) {
+        if (tripped.contains(rule)) {
+            incompleteFiles.add(filePath);
+            return List.of();
+        }
+        FileGuard guard = startGuarding();
+        try {
+            ScanContext context = new ScanContext(psiFile, PermitAllPatterns.NONE, probe, guard);
+            ProgressManager.getInstance().executeProcessUnderProgress(() -> {
+                long start = context.ruleStarted(rule);
+                for (ScanResult result : rule.scan(psiFile)) {
+                    context.report(psiFile, result);
+                }
+                context.ruleFinished(start);
+            }, guard.indicator);
+            return context.getResults();
+        } catch (BudgetExceededException e) {
+            handleOverrun(e.rule, filePath);
+        } catch (ProcessCanceledException e) {
+            handleOverrun(guard.getExpiredRule(e), filePath);
+        } finally {
+            stopGuarding(guard);
+        }
+        return List.of();
+    }
+
+    private void handleOverrun(BaseRule rule, String filePath) {
+        log.warn("Rule {} exceeded its budget of {} ms on {}", rule.getClass().getSimpleName(), getBudgetMillis(), filePath);
+        incompleteFiles.add(filePath);
+        recordOverrun(rule);
+    }
+
+    /**
+     * Creates the guard of a file and makes sure the watchdog runs while the file is scanned.
+     */
+    private FileGuard startGuarding() {
+        FileGuard guard = new FileGuard(ProgressManager.getInstance().getProgressIndicator());
+        synchronized (watchdogLock) {
+            activeGuards.add(guard);
+            if (watchdog == null) {
+                watchdog = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(
+                        this::checkActiveGuards, WATCHDOG_PERIOD_MILLIS, WATCHDOG_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        return guard;
+    }
+
+    /**
+     * Stops watching the file, and stops the watchdog once no file of the session is being scanned.
+     */
+    private void stopGuarding(FileGuard guard) {
+        synchronized (watchdogLock) {
+            activeGuards.remove(guard);
+            if (activeGuards.isEmpty() && watchdog != null) {
+                watchdog.cancel(false);
+                watchdog = null;
+            }
+        }
+    }
+
+    private void checkActiveGuards() {
+        for (FileGuard guard : activeGuards) {
+            guard.checkRunningRule();
+        }
+    }
+
+    private synchronized void recordOverrun(BaseRule rule) {
+        int index = ruleIndexes.get(rule);
+        if (++overruns[index] >= maxOverruns && tripped.add(rule)) {
+            log.warn("Rule {} tripped after {} budget overruns, skipping it for the rest of the scan",
+                    rule.getClass().getSimpleName(), overruns[index]);
+            if (index < fusedRuleCount) {
+                engine = engineWithout(Set.of());
+            }
+        }
+    }
+
+    private FusedVisitorEngine engineWithout(Set<BaseRule> skipped) {
+        List<BaseRule> remaining = new ArrayList<>(fusedRuleCount);
+        for (BaseRule rule : rules.subList(0, fusedRuleCount)) {
+            if (!tripped.contains(rule) && !skipped.contains(rule)) {
+                remaining.add(rule);
+            }
+        }
+        return new FusedVisitorEngine(remaining);
+    }
+
+    private static long getSetting(ProjectConfig config, String name, long defaultValue) {
+        Map<String, Object> settings = config != null ? config.getCustomSettings() : null;
+        Object value = settings != null ? settings.get(name) : null;
+        // Gson reads all JSON numbers into doubles
+        return value instanceof Number number && number.longValue() > 0 ? number.longValue() : defaultValue;
+    }
+
+    /**
+     * Tracks the time the rules spend on one file. Callbacks run on the scanning thread; the watchdog reads the
+     * running rule from a scheduler thread, so everything it reads is volatile, including the time the running
+     * rule had already spent on the file before the callback started.
+     */
+    final class FileGuard {
+        private final ProgressIndicator taskIndicator;
+        private final long[] spentNanos = new long[rules.size()];
+        private volatile ProgressIndicator indicator;
+        private volatile int currentRule = -1;
+        private volatile long currentStartNanos;
+        private volatile long currentSpentNanos;
+        private volatile int expiredRule = -1;
+
+        /**
+         * @param taskIndicator The indicator of the scan task, or null; cancelling it also cancels the file.
+         */
+        FileGuard(ProgressIndicator taskIndicator) {
+            this.taskIndicator = taskIndicator;
+            this.indicator = createIndicator();
+        }
+
+        /**
+         * Starts over for another attempt at the file, with a fresh budget for every rule.
+         */
+        private void restart() {
+            currentRule = -1;
+            Arrays.fill(spentNanos, 0);
+            indicator = createIndicator();
+            expiredRule = -1;
+        }
+
+        private ProgressIndicator createIndicator() {
+            return taskIndicator != null
+                    ? new SensitiveProgressWrapper(taskIndicator)
+                    : new EmptyProgressIndicator();
+        }
+
+        void ruleStarted(BaseRule rule, long startNanos) {
+            Integer index = ruleIndexes.get(rule);
+            if (index != null) {
+                currentStartNanos = startNanos;
+                currentSpentNanos = spentNanos[index];
+            }
+            // Written last, so the watchdog sees the start and spent time of the rule it reads here
+            currentRule = index != null ? index : -1;
+        }
+
+        void ruleFinished(long elapsedNanos) {
+            int rule = currentRule;
+            currentRule = -1;
+            if (rule >= 0 && (spentNanos[rule] += elapsedNanos) > budgetNanos) {
+                throw new BudgetExceededException(rules.get(rule));
+            }
+        }
+
+        /**
+         * Cooperative check between callbacks, for a budget the watchdog found exceeded while no check ran.
+         */
+        void checkExpired() {
+            int rule = expiredRule;
+            if (rule >= 0) {
+                throw new BudgetExceededException(rules.get(rule));
+            }
+        }
+
+        /**
+         * Returns the rule the watchdog stopped, or rethrows the cancellation if the scan itself was cancelled.
+         */
+        private BaseRule getExpiredRule(ProcessCanceledException e) {
+            // A cancelled scan wins over a budget the watchdog found exceeded at the same time
+            int rule = expiredRule;
+            if (rule < 0 || taskIndicator != null && taskIndicator.isCanceled()) {
+                throw e;
+            }
+            return rules.get(rule);
+        }
+
+        private void checkRunningRule() {
+            int rule = currentRule;
+            if (rule < 0 || expiredRule >= 0) {
+                return;
+            }
+            long spent = currentSpentNanos + System.nanoTime() - currentStartNanos;
+            // Skip the check if the next callback started meanwhile, its times may be mixed with this one's
+            if (spent > budgetNanos && currentRule == rule) {
+                expiredRule = rule;
+                indicator.cancel();
+            }
+        }
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        private final BaseRule rule;
+
+        BudgetExceededException(BaseRule rule) {
+            super(null, null, false, false);
+            this.rule = rule;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.safecode.detection;
+
+import org.example.safecode.detection.rules.BaseRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the enabled rules of a scan session together with their fused dispatch engine. The rules are
+ * built once and shared by all scan workers; everything that varies per file or per scan is passed
+ * to them through {@link ScanContext}.
+ */
+public final class RuleRegistry {
+    private final List<BaseRule> rules;
+    private final FusedVisitorEngine engine;
+
+    public RuleRegistry(List<BaseRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.engine = new FusedVisitorEngine(this.rules);
+    }
+
+    /**
+     * Creates a registry with the rules currently enabled in {@link GetEnabledScanners}.
+     */
+    public static RuleRegistry ofEnabledRules() {
+        return new RuleRegistry(GetEnabledScanners.get());
+    }
+
+    public List<BaseRule> getRules() {
+        return rules;
+    }
+
+    public FusedVisitorEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the class names of the registered rules, in registration order.
+     */
+    public List<String> getRuleNames() {
+        List<String> ruleNames = new ArrayList<>(rules.size());
+        for (BaseRule rule : rules) {
+            ruleNames.add(rule.getClass().getName());
+        }
+        return ruleNames;
+    }
+}
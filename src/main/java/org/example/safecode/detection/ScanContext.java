@@ -0,0 +1,171 @@
+package org.example.safecode.detection;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.metrics.ScanProfiler;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.utils.LineOffsetIndex;
+import org.example.safecode.utils.PermitAllPatterns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-file state shared by all rules during a fused scan: the file being scanned, the findings reported
+ * so far, the stack of enclosing methods and any per-file scratch state a rule needs between callbacks.
+ * Rules are shared by all scan workers, so anything that varies per scan or per file belongs here.
+ */
+public class ScanContext {
+    private final PsiFile psiFile;
+    private final String filePath;
+    private final List<ScanResult> results = new ArrayList<>();
+    private final Deque<PsiMethod> methodStack = new ArrayDeque<>();
+    private final Map<Object, Object> ruleState = new HashMap<>();
+    private final PermitAllPatterns permitAllPatterns;
+    private final ScanProfiler.FileProbe probe;
+    private final RuleBudget.FileGuard guard;
+
+    public ScanContext(PsiFile psiFile) {
+        this(psiFile, PermitAllPatterns.NONE);
+    }
+
+    public ScanContext(PsiFile psiFile, PermitAllPatterns permitAllPatterns) {
+        this(psiFile, permitAllPatterns, null, null);
+    }
+
+    /**
+     * @param psiFile           The file being scanned.
+     * @param permitAllPatterns The permitAll URL patterns of the scan session this file belongs to.
+     * @param probe             Measures the rules' work on this file, or null if the scan is not profiled.
+     * @param guard             Enforces the rules' time budget on this file, or null for no budget.
+     */
+    ScanContext(PsiFile psiFile, PermitAllPatterns permitAllPatterns, ScanProfiler.FileProbe probe, RuleBudget.FileGuard guard) {
+        this.psiFile = psiFile;
+        this.filePath = psiFile.getVirtualFile() != null ? psiFile.getVirtualFile().getPath() : psiFile.getName();
+        this.permitAllPatterns = permitAllPatterns;
+        this.probe = probe;
+        this.guard = guard;
+    }
+
+    public PsiFile getPsiFile() {
+        return psiFile;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns the URL patterns the project's security configuration opens to everyone.
+     */
+    public PermitAllPatterns getPermitAllPatterns() {
+        return permitAllPatterns;
+    }
+
+    /**
+     * Reports a finding anchored at the given element.
+     *
+     * @param element The element the finding refers to.
+     * @param result  The finding.
+     */
+    public void report(PsiElement element, ScanResult result) {
+        results.add(result);
+        if (probe != null) {
+            probe.findingReported();
+        }
+    }
+
+    public List<ScanResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Returns the innermost method currently being walked, or null outside of method bodies.
+     */
+    public PsiMethod getCurrentMethod() {
+        return methodStack.peek();
+    }
+
+    public boolean isInsideMethod() {
+        return !methodStack.isEmpty();
+    }
+
+    void enterMethod(PsiMethod method) {
+        methodStack.push(method);
+    }
+
+    void exitMethod() {
+        methodStack.pop();
+    }
+
+    /**
+     * Called by the engine before each rule callback; returns the start time for {@link #ruleFinished}.
+     */
+    long ruleStarted(BaseRule rule) {
+        if (probe == null && guard == null) {
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        if (probe != null) {
+            probe.ruleStarted(rule);
+        }
+        if (guard != null) {
+            guard.ruleStarted(rule, startNanos);
+        }
+        return startNanos;
+    }
+
+    /**
+     * Called by the engine after each rule callback; throws if the rule has now used up its budget on this file.
+     */
+    void ruleFinished(long startNanos) {
+        if (probe == null && guard == null) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (probe != null) {
+            probe.ruleFinished(elapsedNanos);
+        }
+        if (guard != null) {
+            guard.ruleFinished(elapsedNanos);
+        }
+    }
+
+    void nodeVisited() {
+        if (probe != null) {
+            probe.nodeVisited();
+        }
+        if (guard != null) {
+            guard.checkExpired();
+        }
+    }
+
+    /**
+     * Returns per-file scratch state owned by the given key, creating it on first use.
+     *
+     * @param owner   The owner of the state, usually the rule itself.
+     * @param factory Creates the initial state.
+     * @return The state for this file.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getState(Object owner, Supplier<T> factory) {
+        return (T) ruleState.computeIfAbsent(owner, key -> factory.get());
+    }
+
+    /**
+     * Retrieves the line number of a given PsiElement in the file.
+     *
+     * @param element The PsiElement whose line number needs to be determined.
+     * @return The line number of the element (1-based), or -1 if it cannot be determined.
+     */
+    public int getLineNumber(PsiElement element) {
+        return LineOffsetIndex.of(psiFile).getLineNumber(element.getTextRange().getStartOffset());
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.safecode.detection;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.example.safecode.models.ScanResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Project-level cache of the findings of each scanned file. An entry is only reused while the file's
+ * modification stamp and the scan fingerprint (enabled rules, project config, permitAll URLs) are
+ * unchanged; VFS and PSI change events evict entries eagerly so edited files never linger in memory.
+ * <p>
+ * Taint findings also depend on the callees in other files a method passes data on to, see
+ * {@code TaintSummaryCache#getDependencies}. Their stamps are kept with the entry, and an entry is only reused
+ * while they are unchanged too.
+ */
+@Service(Service.Level.PROJECT)
+public final class ScanResultCache implements Disposable {
+    private final Map<VirtualFile, Entry> entries = new ConcurrentHashMap<>();
+
+    public ScanResultCache(Project project) {
+        FileChangeListener.subscribe(project, this, this::invalidate);
+    }
+
+    public static ScanResultCache getInstance(Project project) {
+        return project.getService(ScanResultCache.class);
+    }
+
+    /**
+     * Returns the cached findings for the file, or null if the file or the scan setup changed since they were stored.
+     *
+     * @param file              The file to look up.
+     * @param modificationStamp The current modification stamp of the file, see {@link #getModificationStamp}.
+     * @param fingerprint       The fingerprint of the current scan setup.
+     */
+    public List<ScanResult> get(VirtualFile file, long modificationStamp, int fingerprint) {
+        Entry entry = entries.get(file);
+        if (entry == null || entry.fingerprint != fingerprint || entry.modificationStamp != modificationStamp
+                || !isUpToDate(entry.dependencies)) {
+            return null;
+        }
+        return ScanResultCodec.decode(entry.results);
+    }
+
+    /**
+     * Stores the findings of a file, keyed by the modification stamp it had when the scan started.
+     *
+     * @param dependencies The other files the findings were computed from, with their modification stamps.
+     */
+    public void put(VirtualFile file, long modificationStamp, int fingerprint, Map<VirtualFile, Long> dependencies,
+                    List<ScanResult> results) {
+        entries.put(file, new Entry(modificationStamp, fingerprint, Map.copyOf(dependencies), ScanResultCodec.encode(results)));
+    }
+
+    private static boolean isUpToDate(Map<VirtualFile, Long> dependencies) {
+        for (Map.Entry<VirtualFile, Long> dependency : dependencies.entrySet()) {
+            VirtualFile file = dependency.getKey();
+            if (!file.isValid() || getModificationStamp(file) != dependency.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void invalidate(VirtualFile file) {
+        if (file.isDirectory()) {
+            entries.keySet().removeIf(cached -> VfsUtilCore.isAncestor(file, cached, false));
+        } else {
+            entries.remove(file);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Uses the document stamp when the file is open, so unsaved edits are taken into account.
+     */
+    public static long getModificationStamp(VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getModificationStamp() : file.getModificationStamp();
+    }
+
+    @Override
+    public void dispose() {
+        entries.clear();
+    }
+
+    /**
+     * @param results The findings in the form of {@link ScanResultCodec}, decoded on every hit.
+     */
+    private record Entry(long modificationStamp, int fingerprint, Map<VirtualFile, Long> dependencies, byte[] results) {
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.safecode.detection;
+
+import org.example.safecode.enums.MessageTemplate;
+import org.example.safecode.enums.VulnerabilitySeverity;
+import org.example.safecode.enums.VulnerabilityType;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.VulnerabilityDefinitionLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of the findings of one file, used by {@link ScanResultCache} and {@link ScanResultStore} so they
+ * hold a byte array per file instead of keeping every {@link ScanResult} bean of the session alive. Each lookup
+ * decodes fresh beans, so callers may modify them without affecting the caches.
+ */
+final class ScanResultCodec {
+    static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+
+    private ScanResultCodec() {
+    }
+
+    static byte[] encode(List<ScanResult> results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(results.size());
+            for (ScanResult result : results) {
+                // Templated messages keep their template and arguments, so decoded results format them lazily too
+                MessageTemplate template = result.getMessageTemplate();
+                writeString(out, template != null ? null : result.getMessage());
+                writeString(out, template != null ? template.name() : null);
+                if (template != null) {
+                    String[] arguments = result.getMessageArguments() != null ? result.getMessageArguments() : new String[0];
+                    out.writeInt(arguments.length);
+                    for (String argument : arguments) {
+                        writeString(out, argument);
+                    }
+                }
+                out.writeInt(result.getLineNumber());
+                writeString(out, result.getType() != null ? result.getType().name() : null);
+                out.writeBoolean(result.isCompliance());
+                writeString(out, result.getComplianceType());
+                writeString(out, result.getDescription());
+                writeString(out, result.getFilePath());
+                writeString(out, result.getVulnerabilityDefinition() != null ? result.getVulnerabilityDefinition().getId() : null);
+                writeString(out, result.getCodeFragment());
+                writeString(out, result.getSeverity() != null ? result.getSeverity().name() : null);
+                List<String> recommendations = result.getRecommendations() != null ? result.getRecommendations() : List.of();
+                out.writeInt(recommendations.size());
+                for (String recommendation : recommendations) {
+                    writeString(out, recommendation);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<ScanResult> decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int size = in.readInt();
+            List<ScanResult> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ScanResult result = new ScanResult();
+                result.setMessage(readString(in));
+                String template = readString(in);
+                if (template != null) {
+                    String[] arguments = new String[in.readInt()];
+                    for (int j = 0; j < arguments.length; j++) {
+                        arguments[j] = readString(in);
+                    }
+                    result.setMessageTemplate(MessageTemplate.valueOf(template));
+                    result.setMessageArguments(arguments);
+                }
+                result.setLineNumber(in.readInt());
+                String type = readString(in);
+                result.setType(type != null ? VulnerabilityType.valueOf(type) : null);
+                result.setCompliance(in.readBoolean());
+                result.setComplianceType(readString(in));
+                result.setDescription(readString(in));
+                result.setFilePath(readString(in));
+                result.setVulnerabilityDefinition(resolveDefinition(readString(in), result.getType()));
+                result.setCodeFragment(readString(in));
+                String severity = readString(in);
+                result.setSeverity(severity != null ? VulnerabilitySeverity.valueOf(severity) : null);
+                int recommendationCount = in.readInt();
+                List<String> recommendations = new ArrayList<>(recommendationCount);
+                for (int j = 0; j < recommendationCount; j++) {
+                    recommendations.add(readString(in));
+                }
+                result.setRecommendations(recommendations);
+                results.add(result);
+            }
+            return results;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Definitions are stored by id only and resolved against the bundled definitions on load.
+     */
+    private static VulnerabilityDefinition resolveDefinition(String id, VulnerabilityType type) {
+        if (id == null) {
+            return null;
+        }
+        VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById(id);
+        if (definition != null) {
+            return definition;
+        }
+        return VulnerabilityDefinition.builder().id(id).type(type).build();
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string; unlike {@code writeUTF} it has no 64 KB limit, which large code
+     * fragments exceed.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
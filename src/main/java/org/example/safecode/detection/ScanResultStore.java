@@ -0,0 +1,378 @@
+package org.example.safecode.detection;
+
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.models.ScanResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Persists the findings of each scanned file in an append-only binary log under the IDE system directory,
+ * so a scan after an IDE restart only has to re-analyse files whose content changed.
+ * <p>
+ * Every record carries the file's content hash, the content hashes of the other files its taint findings were
+ * computed from, and the scan fingerprint it was produced with. The log is
+ * read once on first use (the last record of a file wins) and is rewritten when stale records dominate it.
+ * A header with the format and plugin version discards the whole store after an upgrade.
+ * <p>
+ * Records are length-prefixed and checksummed. Loading stops at the first torn or corrupt record, e.g. one the
+ * IDE died writing, and the next append truncates the log there, so a bad tail never hides later records.
+ */
+@Slf4j
+@Service(Service.Level.PROJECT)
+public final class ScanResultStore implements Disposable {
+    private static final int MAGIC = 0x53434F44; // "SCOD"
+    private static final int FORMAT_VERSION = 5;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+    private static final String PLUGIN_ID = "org.example.safecode";
+    private static final String STORE_FILE_NAME = "scan-results.bin";
+
+    private final Path storeFile;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Entry> pending = new HashMap<>();
+    private boolean loaded;
+    private int recordCount;
+    // Length of the valid prefix of the log; anything after it is a torn record and is cut off before appending
+    private long validLength = -1;
+
+    public ScanResultStore(Project project) {
+        this.storeFile = PathManager.getSystemDir()
+                .resolve("safecode")
+                .resolve(project.getLocationHash())
+                .resolve(STORE_FILE_NAME);
+    }
+
+    public static ScanResultStore getInstance(Project project) {
+        return project.getService(ScanResultStore.class);
+    }
+
+    /**
+     * Returns the stored findings for the file, or null if its content, the content of a file they depend on, or
+     * the scan setup changed since they were stored.
+     *
+     * @param file        The file to look up.
+     * @param contentHash The current content hash of the file, see {@link #computeContentHash}.
+     * @param fingerprint The fingerprint of the current scan setup.
+     */
+    public List<ScanResult> get(VirtualFile file, long contentHash, int fingerprint) {
+        Entry entry = getEntry(file);
+        if (entry == null || entry.contentHash != contentHash || entry.fingerprint != fingerprint
+                || !isUpToDate(entry.dependencies)) {
+            return null;
+        }
+        return ScanResultCodec.decode(entry.results);
+    }
+
+    /**
+     * Returns the other files the stored findings of the file depend on, for callers that cache them further.
+     */
+    public List<VirtualFile> getDependencies(VirtualFile file) {
+        Entry entry = getEntry(file);
+        if (entry == null) {
+            return List.of();
+        }
+        List<VirtualFile> dependencies = new ArrayList<>(entry.dependencies.size());
+        for (String path : entry.dependencies.keySet()) {
+            VirtualFile dependency = LocalFileSystem.getInstance().findFileByPath(path);
+            if (dependency != null) {
+                dependencies.add(dependency);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Records the findings of a file. They are written to disk on the next {@link #flush()}.
+     *
+     * @param dependencies The paths of the other files the findings were computed from, with their content hashes.
+     */
+    public synchronized void put(VirtualFile file, long contentHash, int fingerprint, Map<String, Long> dependencies,
+                                 List<ScanResult> results) {
+        ensureLoaded();
+        Entry entry = new Entry(contentHash, fingerprint, Map.copyOf(dependencies), ScanResultCodec.encode(results));
+        entries.put(file.getPath(), entry);
+        pending.put(file.getPath(), entry);
+    }
+
+    /**
+     * Appends all findings recorded since the last flush to the store, compacting it when most records are stale.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(storeFile.getParent());
+            if (!Files.exists(storeFile) || validLength < 0 || recordCount + pending.size() > 2 * entries.size()) {
+                rewrite();
+            } else {
+                append();
+            }
+            pending.clear();
+        } catch (IOException e) {
+            // Pending records are retried on the next flush; a partially written tail is truncated first
+            log.warn("Could not write scan result store {}: {}", storeFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Hashes the current content of the file, including unsaved edits of an open document.
+     */
+    public static long computeContentHash(VirtualFile file) throws IOException {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        byte[] content = document != null
+                ? document.getText().getBytes(StandardCharsets.UTF_8)
+                : file.contentsToByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return ((long) content.length << 32) ^ crc.getValue();
+    }
+
+    @Override
+    public void dispose() {
+        flush();
+    }
+
+    private synchronized Entry getEntry(VirtualFile file) {
+        ensureLoaded();
+        return entries.get(file.getPath());
+    }
+
+    /**
+     * Hashes the dependencies outside the store lock; they are few, and only checked when the file itself matched.
+     */
+    private static boolean isUpToDate(Map<String, Long> dependencies) {
+        for (Map.Entry<String, Long> dependency : dependencies.entrySet()) {
+            VirtualFile file = LocalFileSystem.getInstance().findFileByPath(dependency.getKey());
+            try {
+                if (file == null || !file.isValid() || computeContentHash(file) != dependency.getValue()) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.exists(storeFile)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(storeFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !getPluginVersion().equals(readString(in))) {
+                log.info("Discarding scan result store written by another plugin version");
+                return;
+            }
+            long offset = headerLength();
+            while (true) {
+                byte[] record = readRecord(in);
+                if (record == null) {
+                    break;
+                }
+                try (DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record))) {
+                    String path = readString(recordIn);
+                    entries.put(path, readEntry(recordIn));
+                }
+                offset += recordLength(record);
+                recordCount++;
+            }
+            validLength = offset;
+            log.info("Loaded stored results for {} files in {} ms", entries.size(), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            // A corrupt store only costs a full rescan; the next flush rewrites it
+            log.warn("Could not read scan result store {}: {}", storeFile, e.getMessage());
+            entries.clear();
+            recordCount = 0;
+            validLength = -1;
+        }
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the log or at a torn or corrupt record.
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            byte[] record = new byte[length];
+            in.readFully(record);
+            int checksum = in.readInt();
+            return checksum == checksum(record) ? record : null;
+        } catch (EOFException tornRecord) {
+            // Also reached when the IDE died halfway through an append; earlier records stay valid
+            return null;
+        }
+    }
+
+    private void append() throws IOException {
+        List<byte[]> records = encode(pending);
+        try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.WRITE)) {
+            if (channel.size() > validLength) {
+                log.info("Truncating torn tail of scan result store {} at {} bytes", storeFile, validLength);
+                channel.truncate(validLength);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(storeFile, StandardOpenOption.APPEND)))) {
+            for (byte[] record : records) {
+                writeRecord(out, record);
+            }
+        }
+        for (byte[] record : records) {
+            validLength += recordLength(record);
+        }
+        recordCount += records.size();
+    }
+
+    private void rewrite() throws IOException {
+        Path tempFile = storeFile.resolveSibling(STORE_FILE_NAME + ".tmp");
+        List<byte[]> records = encode(entries);
+        long length = headerLength();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, getPluginVersion());
+            for (byte[] record : records) {
+                writeRecord(out, record);
+                length += recordLength(record);
+            }
+        }
+        Files.move(tempFile, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordCount = records.size();
+        validLength = length;
+    }
+
+    /**
+     * Serializes the given entries into records. An entry that cannot be serialized is dropped from the store
+     * with a warning instead of failing every flush after it.
+     */
+    private List<byte[]> encode(Map<String, Entry> toEncode) {
+        List<byte[]> records = new ArrayList<>(toEncode.size());
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : List.copyOf(toEncode.entrySet())) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                writeString(out, entry.getKey());
+                writeEntry(out, entry.getValue());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not store scan results of {}: {}", entry.getKey(), e.getMessage());
+                failed.add(entry.getKey());
+                continue;
+            }
+            records.add(bytes.toByteArray());
+        }
+        for (String path : failed) {
+            entries.remove(path);
+            pending.remove(path);
+        }
+        return records;
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] record) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt(checksum(record));
+    }
+
+    private static long recordLength(byte[] record) {
+        return Integer.BYTES + record.length + Integer.BYTES;
+    }
+
+    private static long headerLength() {
+        return Integer.BYTES + Integer.BYTES + 1 + Integer.BYTES + getPluginVersion().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        out.writeLong(entry.contentHash);
+        out.writeInt(entry.fingerprint);
+        out.writeInt(entry.dependencies.size());
+        for (Map.Entry<String, Long> dependency : entry.dependencies.entrySet()) {
+            writeString(out, dependency.getKey());
+            out.writeLong(dependency.getValue());
+        }
+        out.writeInt(entry.results.length);
+        out.write(entry.results);
+    }
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        long contentHash = in.readLong();
+        int fingerprint = in.readInt();
+        int dependencyCount = in.readInt();
+        if (dependencyCount < 0 || dependencyCount > MAX_RECORD_BYTES / Long.BYTES) {
+            throw new IOException("Invalid dependency count " + dependencyCount);
+        }
+        Map<String, Long> dependencies = new HashMap<>(dependencyCount);
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.put(readString(in), in.readLong());
+        }
+        int length = in.readInt();
+        if (length < 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Invalid record length " + length);
+        }
+        byte[] results = new byte[length];
+        in.readFully(results);
+        return new Entry(contentHash, fingerprint, dependencies, results);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        ScanResultCodec.writeString(out, value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return ScanResultCodec.readString(in);
+    }
+
+    private static String getPluginVersion() {
+        IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        return plugin != null ? plugin.getVersion() : "";
+    }
+
+    /**
+     * @param dependencies The content hashes of the other files the findings depend on, by path.
+     * @param results      The findings in the form of {@link ScanResultCodec}, decoded on every hit.
+     */
+    private record Entry(long contentHash, int fingerprint, Map<String, Long> dependencies, byte[] results) {
+    }
+}
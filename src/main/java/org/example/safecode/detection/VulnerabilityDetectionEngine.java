@@ -12,61 +12,95 @@ import org.example.safecode.detection.rules.security_miconfiguration.SecurityMis
 import org.example.safecode.detection.rules.sensitive_data_exposure.SensitiveDataExposureRule;
 import org.example.safecode.detection.rules.sql_injection.InjectionRule;
 import org.example.safecode.enums.VulnerabilityType;
+import org.example.safecode.metrics.ScanProfiler;
 import org.example.safecode.models.ProjectConfig;
 import org.example.safecode.models.ScanResult;
-import org.example.safecode.utils.ProjectConfigReader;
+import org.example.safecode.utils.PermitAllPatterns;
+import org.example.safecode.utils.ProjectConfigService;
 
 import java.util.*;
 
 @Slf4j
 public class VulnerabilityDetectionEngine {
     private Project project;
-    private final Set<String> permitAllUrls;
+    private final PermitAllPatterns permitAllPatterns;
 //    private final List<VulnerabilityDefinition> vulnerabilityDefinitions;
 
     private final IndustryComplianceChecker complianceChecker;
+    private final RuleRegistry ruleRegistry;
+    private final ProjectConfig config;
+    private final int fingerprint;
+    private final ScanProfiler profiler;
+    private final RuleBudget ruleBudget;
 
     public VulnerabilityDetectionEngine(Project project,Set<String> permitAllUrls) {
         this.complianceChecker = new IndustryComplianceChecker();
         this.project = project;
-        this.permitAllUrls = permitAllUrls;
+        this.permitAllPatterns = new PermitAllPatterns(permitAllUrls);
+        this.ruleRegistry = RuleRegistry.ofEnabledRules();
+        this.config = ProjectConfigService.getInstance(project).getConfig();
+        this.fingerprint = computeFingerprint();
+        List<BaseRule> profiledRules = new ArrayList<>(ruleRegistry.getRules());
+        profiledRules.addAll(complianceChecker.getComplianceRules());
+        this.profiler = new ScanProfiler(profiledRules);
+        this.ruleBudget = new RuleBudget(ruleRegistry.getRules(), ruleRegistry.getEngine(),
+                complianceChecker.getComplianceRules(), config);
 //        this.vulnerabilityDefinitions = VulnerabilityDefinitionLoader.loadVulnerabilities();
         log.info("Initialized VulnerabilityDetectionEngine for project: {}", project.getName());
     }
 
-    public List<ScanResult> performScan(PsiFile psiFile) {
-        log.info("Starting scan for file: {}", psiFile.getName());
+    /**
+     * Identifies the scan setup: cached results are only valid for the rules, config and permitAll URLs they were produced with.
+     */
+    public int getFingerprint() {
+        return fingerprint;
+    }
 
-        Map<String, ScanResult> resultsMap = new HashMap<>();
+    /**
+     * Returns the profiler that measures every file and rule of this scan session.
+     */
+    public ScanProfiler getProfiler() {
+        return profiler;
+    }
 
-        // Step 1: Run vulnerability scanners
-        for (BaseRule scanner : GetEnabledScanners.get()) {
-            log.debug("Running scanner: {}", scanner.getClass().getSimpleName());
+    /**
+     * Returns the time budget of the rules of this scan session, which knows the rules that tripped.
+     */
+    public RuleBudget getRuleBudget() {
+        return ruleBudget;
+    }
 
-            if (scanner instanceof BrokenAccessControlRule) {
-                ((BrokenAccessControlRule) scanner).setPermitAllUrls(permitAllUrls);
-            }
+    private int computeFingerprint() {
+        return Objects.hash(ruleRegistry.getRuleNames(), new TreeSet<>(permitAllPatterns.getPatterns()), config);
+    }
 
+    public List<ScanResult> performScan(PsiFile psiFile) {
+        log.debug("Starting scan for file: {}", psiFile.getName());
 
-            for (ScanResult result : scanner.scan(psiFile)) {
-                String key = generateKey(result);
-                resultsMap.putIfAbsent(key, result);
-                log.debug("Detected vulnerability: {} at line {}", result.getType(), result.getLineNumber());
-            }
+        Map<String, ScanResult> resultsMap = new HashMap<>();
+        String filePath = psiFile.getVirtualFile() != null ? psiFile.getVirtualFile().getPath() : psiFile.getName();
+        ScanProfiler.FileProbe probe = profiler.startFile(filePath);
+
+        // Step 1: Run vulnerability scanners in a single fused pass over the file, each under its time budget
+        ScanContext context = ruleBudget.scan(psiFile, filePath, permitAllPatterns, probe);
+        for (ScanResult result : context.getResults()) {
+            String key = generateKey(result);
+            resultsMap.putIfAbsent(key, result);
+            log.debug("Detected vulnerability: {} at line {}", result.getType(), result.getLineNumber());
         }
 
-        // Step 2: Run compliance checks (if applicable)
-        ProjectConfig config = ProjectConfigReader.loadConfigOrDefault(project);
+        // Step 2: Run compliance checks (if applicable), under the same budget
         if (!config.getComplianceRequirements().isEmpty()) {
-            log.info("Running compliance checks for file: {}", psiFile.getName());
-            for (ScanResult complianceResult : complianceChecker.checkCompliance(psiFile, config)) {
+            log.debug("Running compliance checks for file: {}", psiFile.getName());
+            for (ScanResult complianceResult : complianceChecker.checkCompliance(psiFile, config, ruleBudget, probe)) {
                 String key = generateKey(complianceResult);
                 resultsMap.put(key, complianceResult); // Replace or add compliance results
                 log.debug("Detected compliance issue: {} at line {}", complianceResult.getType(), complianceResult.getLineNumber());
             }
         }
 
-        log.info("Completed scan for file: {}", psiFile.getName());
+        probe.finish(resultsMap.size());
+        log.debug("Completed scan for file: {}", psiFile.getName());
         return new ArrayList<>(resultsMap.values());
     }
 
@@ -1,23 +1,81 @@
 package org.example.safecode.detection.rules;
 
-import com.intellij.openapi.editor.Document;
-import com.intellij.psi.PsiDocumentManager;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
+import com.intellij.psi.*;
+import org.example.safecode.detection.FusedVisitorEngine;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.enums.ComplianceType;
+import org.example.safecode.enums.NodeKind;
 import org.example.safecode.models.ScanResult;
+import org.example.safecode.utils.LineOffsetIndex;
 
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Base class of all detection rules. A rule instance is shared by every worker of a scan, so rules must not
+ * keep mutable state in fields; per-file state goes through {@link ScanContext#getState}. Rules that walk the
+ * file themselves extend {@link LegacyRule} instead.
+ */
 public abstract class BaseRule {
+    // Built on first use; the engine of a single rule is immutable, so racing workers may each build one
+    private volatile FusedVisitorEngine singleRuleEngine;
+
     /**
-     * Scans the given PsiFile for specific vulnerabilities.
-     * This method must be implemented by all subclasses to provide custom detection logic.
+     * Scans the given PsiFile for specific vulnerabilities, running this rule's callbacks through the fused
+     * visitor engine.
      *
      * @param psiFile The file to be scanned for vulnerabilities.
      * @return A list of ScanResult objects containing detected vulnerabilities and their details.
      */
-    public abstract List<ScanResult> scan(PsiFile psiFile);
+    public List<ScanResult> scan(PsiFile psiFile) {
+        FusedVisitorEngine engine = singleRuleEngine;
+        if (engine == null) {
+            engine = new FusedVisitorEngine(List.of(this));
+            singleRuleEngine = engine;
+        }
+        return engine.scan(psiFile);
+    }
+
+    /**
+     * The node kinds this rule wants callbacks for during the fused single-pass scan. Must not be empty,
+     * except for a {@link LegacyRule}.
+     */
+    public Set<NodeKind> getInterests() {
+        return Set.of();
+    }
+
+    public void visitFile(PsiFile psiFile, ScanContext context) {
+    }
+
+    public void visitClass(PsiClass psiClass, ScanContext context) {
+    }
+
+    public void visitMethod(PsiMethod method, ScanContext context) {
+    }
+
+    public void leaveMethod(PsiMethod method, ScanContext context) {
+    }
+
+    public void visitMethodCall(PsiMethodCallExpression expression, ScanContext context) {
+    }
+
+    public void visitAssignment(PsiAssignmentExpression expression, ScanContext context) {
+    }
+
+    public void visitField(PsiField field, ScanContext context) {
+    }
+
+    public void visitLocalVariable(PsiLocalVariable variable, ScanContext context) {
+    }
+
+    public void visitVariable(PsiVariable variable, ScanContext context) {
+    }
+
+    public void visitAnnotation(PsiAnnotation annotation, ScanContext context) {
+    }
+
+    public void visitImport(PsiImportStatement statement, ScanContext context) {
+    }
 
     /**
      * Retrieves the line number of a given PsiElement in the file.
@@ -26,14 +84,9 @@ public abstract class BaseRule {
      * @return The line number of the element (1-based), or -1 if it cannot be determined.
      */
     protected int getLineNumber(PsiElement element) {
-        PsiFile file = element.getContainingFile();
-        Document document = PsiDocumentManager.getInstance(element.getProject()).getDocument(file);
-        if (document != null) {
-            return document.getLineNumber(element.getTextRange().getStartOffset()) + 1;
-        }
-        return -1; // Return -1 if the line number cannot be determined
+        return LineOffsetIndex.getLineNumber(element);
     }
     public ComplianceType getComplianceType() {
         return null; // Default for non-compliance rules
     }
-}
\ No newline at end of file
+}
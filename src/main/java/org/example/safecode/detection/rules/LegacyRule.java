@@ -0,0 +1,23 @@
+package org.example.safecode.detection.rules;
+
+import com.intellij.psi.PsiFile;
+import org.example.safecode.enums.NodeKind;
+import org.example.safecode.models.ScanResult;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base class of rules that walk the file with their own visitor instead of taking part in the fused single-pass
+ * scan. The fused visitor engine runs them through {@link #scan(PsiFile)} before its walk.
+ */
+public abstract class LegacyRule extends BaseRule {
+
+    @Override
+    public abstract List<ScanResult> scan(PsiFile psiFile);
+
+    @Override
+    public final Set<NodeKind> getInterests() {
+        return Set.of();
+    }
+}
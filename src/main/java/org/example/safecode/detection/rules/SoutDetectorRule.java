@@ -1,17 +1,13 @@
-package org.example.safecode;
+package org.example.safecode.detection.rules;
 
-import com.intellij.codeInspection.*;
 import com.intellij.psi.*;
-import com.intellij.codeHighlighting.HighlightDisplayLevel;
-import org.example.safecode.detection.rules.BaseRule;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.ScanResult;
-import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class SoutDetectorInspection extends BaseRule {
+public class SoutDetectorRule extends LegacyRule {
 
     @Override
     public List<ScanResult> scan(PsiFile psiFile) {
@@ -1,72 +1,60 @@
 package org.example.safecode.detection.rules.broken_access_control;
 
 import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.enums.NodeKind;
+import org.example.safecode.index.SpringEndpointIndex;
+import org.example.safecode.enums.MessageTemplate;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.PermitAllPatterns;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 public class BrokenAccessControlRule extends BaseRule {
-    private Set<String> permitAllUrls = new HashSet<>();
-
-    /**
-     * Sets the collection of `permitAll` URLs for skipping relevant methods.
-     */
-    public void setPermitAllUrls(Set<String> permitAllUrls) {
-        this.permitAllUrls = permitAllUrls;
+    @Override
+    public Set<NodeKind> getInterests() {
+        return EnumSet.of(NodeKind.METHOD);
     }
 
     @Override
-    public List<ScanResult> scan(PsiFile psiFile) {
-        List<ScanResult> results = new ArrayList<>();
-        String filePath = psiFile.getVirtualFile().getPath();
-
-        psiFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitMethod(PsiMethod method) {
-                super.visitMethod(method);
-
-                // Skip constructors
-                if (method.isConstructor()) {
-                    return;
-                }
-
-                // Skip pre-login methods
-                if (isPreLoginMethod(method)) {
-                    return;
-                }
+    public void visitMethod(PsiMethod method, ScanContext context) {
+        // Skip constructors
+        if (method.isConstructor()) {
+            return;
+        }
 
-                // Skip methods matching permitAll endpoints
-                if (matchesPermitAllEndpoint(method)) {
-                    return;
-                }
+        // Skip pre-login methods
+        if (isPreLoginMethod(method)) {
+            return;
+        }
 
-                // 1. Check if this method belongs to a Controller class
-                if (isControllerClass(method) && !hasSecurityAnnotation(method)) {
-                    int lineNumber = getLineNumber(method);
-                    VulnerabilityDefinition vulnerabilityDefinition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("205");
-                    results.add(ScanResult.builder()
-                            .vulnerabilityDefinition(vulnerabilityDefinition)
-                            .message("Missing security annotations (e.g., @PreAuthorize, @Secured) in method: " + method.getName())
-                            .lineNumber(lineNumber)
-                            .type(VulnerabilityType.BROKEN_ACCESS_CONTROL)
-                            .isCompliance(false)
-                            .complianceType("")
-                            .recommendations(vulnerabilityDefinition.getRecommendations())
-                            .filePath(filePath)
-                            .build());
-                }
-            }
-        });
+        // Skip methods matching permitAll endpoints
+        if (matchesPermitAllEndpoint(method, context.getPermitAllPatterns())) {
+            return;
+        }
 
-        return results;
+        // 1. Check if this method belongs to a Controller class
+        if (isControllerClass(method) && !hasSecurityAnnotation(method)) {
+            int lineNumber = getLineNumber(method);
+            VulnerabilityDefinition vulnerabilityDefinition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("205");
+            context.report(method, ScanResult.builder()
+                    .vulnerabilityDefinition(vulnerabilityDefinition)
+                    .message(MessageTemplate.MISSING_SECURITY_ANNOTATIONS, method.getName())
+                    .lineNumber(lineNumber)
+                    .type(VulnerabilityType.BROKEN_ACCESS_CONTROL)
+                    .isCompliance(false)
+                    .complianceType("")
+                    .recommendations(vulnerabilityDefinition.getRecommendations())
+                    .filePath(context.getFilePath())
+                    .build());
+        }
     }
 
     /**
@@ -95,16 +83,18 @@ public class BrokenAccessControlRule extends BaseRule {
     }
 
     /**
-     * Checks if a method matches a permitAll endpoint.
+     * Checks if a method matches a permitAll endpoint, either with its full path (class-level prefix included)
+     * or with the path of its own mapping annotation.
      */
-    private boolean matchesPermitAllEndpoint(PsiMethod method) {
-        // Check HTTP mappings (e.g., @PostMapping, @GetMapping) for permitAll matches
-        for (PsiAnnotation annotation : method.getModifierList().getAnnotations()) {
-            if (annotation.getQualifiedName() != null && annotation.getQualifiedName().startsWith("org.springframework.web.bind.annotation.")) {
-                PsiAnnotationMemberValue value = annotation.findAttributeValue("value");
-                if (value != null && permitAllUrls.contains(value.getText().replace("\"", ""))) {
-                    return true;
-                }
+    private boolean matchesPermitAllEndpoint(PsiMethod method, PermitAllPatterns permitAllPatterns) {
+        for (String path : SpringEndpointIndex.getEndpointPaths(method)) {
+            if (permitAllPatterns.matches(path)) {
+                return true;
+            }
+        }
+        for (String path : SpringEndpointIndex.getMappingPaths(method.getModifierList())) {
+            if (permitAllPatterns.matches(path)) {
+                return true;
             }
         }
         return false;
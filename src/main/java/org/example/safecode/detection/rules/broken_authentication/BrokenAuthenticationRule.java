@@ -1,121 +1,115 @@
 package org.example.safecode.detection.rules.broken_authentication;
 
 import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.enums.NodeKind;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.VulnerabilityDefinition;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class BrokenAuthenticationRule extends BaseRule {
 
-    private WeakPasswordPolicyDetector weakPasswordPolicyDetector = new WeakPasswordPolicyDetector();
-    private PlainStoragePasswordDetector plainStoragePasswordDetector = new PlainStoragePasswordDetector();
+    private final WeakPasswordPolicyDetector weakPasswordPolicyDetector = new WeakPasswordPolicyDetector();
+    private final PlainStoragePasswordDetector plainStoragePasswordDetector = new PlainStoragePasswordDetector();
     @Override
-    public List<ScanResult> scan(PsiFile psiFile) {
-        List<ScanResult> results = new ArrayList<>();
-        String filePath = psiFile.getVirtualFile().getPath();
-
-        psiFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitAssignmentExpression(PsiAssignmentExpression expression) {
-                super.visitAssignmentExpression(expression);
-                // 1. Hardcoded Credentials
-                if (isHardcodedCredential(expression)) {
-                    int lineNumber = getLineNumber(expression);
-                    VulnerabilityDefinition vulnerabilityDefinition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("307");
-
-                    results.add(ScanResult.builder()
-                            .vulnerabilityDefinition(vulnerabilityDefinition)
-                            .message("Hardcoded credential detected.")
-                            .lineNumber(lineNumber)
-                            .type(VulnerabilityType.BROKEN_AUTHENTICATION)
-                            .isCompliance(false)
-                            .complianceType("")
-                            .filePath(filePath)
-                            .build());
-                }
-            }
+    public Set<NodeKind> getInterests() {
+        return EnumSet.of(NodeKind.ASSIGNMENT, NodeKind.METHOD, NodeKind.METHOD_CALL);
+    }
 
-            @Override
-            public void visitMethod(PsiMethod method) {
-                super.visitMethod(method);
-                // 2. Weak Password Policies
-                if (weakPasswordPolicyDetector.isWeakPasswordPolicy(method)) {
-                    int lineNumber = getLineNumber(method);
-                    VulnerabilityDefinition vulnerabilityDefinition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("308");
-                    results.add(ScanResult.builder()
-                            .vulnerabilityDefinition(vulnerabilityDefinition)
-                            .message("Weak password policy detected.")
-                            .lineNumber(lineNumber)
-                            .recommendations(vulnerabilityDefinition.getRecommendations())
-                            .type(VulnerabilityType.BROKEN_AUTHENTICATION)
-                            .isCompliance(false)
-                            .complianceType("")
-                            .filePath(filePath)
-                            .build());
-                }
-            }
+    @Override
+    public void visitAssignment(PsiAssignmentExpression expression, ScanContext context) {
+        // 1. Hardcoded Credentials
+        if (isHardcodedCredential(expression)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition vulnerabilityDefinition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("307");
+
+            context.report(expression, ScanResult.builder()
+                    .vulnerabilityDefinition(vulnerabilityDefinition)
+                    .message("Hardcoded credential detected.")
+                    .lineNumber(lineNumber)
+                    .type(VulnerabilityType.BROKEN_AUTHENTICATION)
+                    .isCompliance(false)
+                    .complianceType("")
+                    .filePath(context.getFilePath())
+                    .build());
+        }
+    }
 
-            @Override
-            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
-                super.visitMethodCallExpression(expression);
-                // 3. Plaintext Password Storage
-                if (plainStoragePasswordDetector.isPlaintextPasswordStorage(expression)) {
-                    int lineNumber = getLineNumber(expression);
-                    VulnerabilityDefinition vulnerabilityDefinition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("309");
-                    results.add(ScanResult.builder()
-                            .vulnerabilityDefinition(vulnerabilityDefinition)
-                            .message("Plaintext password storage detected.")
-                            .lineNumber(lineNumber)
-                            .type(VulnerabilityType.BROKEN_AUTHENTICATION)
-                            .isCompliance(false)
-                            .complianceType("")
-                            .filePath(filePath)
-                            .build());
-                }
-
-                // 4. Session Fixation
-                if (isSessionFixation(expression)) {
-                    int lineNumber = getLineNumber(expression);
-                    VulnerabilityDefinition vulnerabilityDefinition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("310");
-                    results.add(ScanResult.builder()
-                            .vulnerabilityDefinition(vulnerabilityDefinition)
-                            .message("Potential session fixation detected. Regenerate session IDs.")
-                            .lineNumber(lineNumber)
-                            .type(VulnerabilityType.BROKEN_AUTHENTICATION)
-                            .isCompliance(false)
-                            .complianceType("")
-                            .filePath(filePath)
-                            .build());
-                }
-
-                // 5. JWT Token Misuse
-                if (isWeakJWTUsage(expression)) {
-                    int lineNumber = getLineNumber(expression);
-                    VulnerabilityDefinition vulnerabilityDefinition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("311");
-                    results.add(ScanResult.builder()
-                            .vulnerabilityDefinition(vulnerabilityDefinition)
-                            .message("Weak JWT signing detected. Use strong signing algorithms and secure keys.")
-                            .lineNumber(lineNumber)
-                            .type(VulnerabilityType.BROKEN_AUTHENTICATION)
-                            .isCompliance(false)
-                            .complianceType("")
-                            .filePath(filePath)
-                            .build());
-                }
-            }
-        });
+    @Override
+    public void visitMethod(PsiMethod method, ScanContext context) {
+        // 2. Weak Password Policies
+        if (weakPasswordPolicyDetector.isWeakPasswordPolicy(method)) {
+            int lineNumber = getLineNumber(method);
+            VulnerabilityDefinition vulnerabilityDefinition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("308");
+            context.report(method, ScanResult.builder()
+                    .vulnerabilityDefinition(vulnerabilityDefinition)
+                    .message("Weak password policy detected.")
+                    .lineNumber(lineNumber)
+                    .recommendations(vulnerabilityDefinition.getRecommendations())
+                    .type(VulnerabilityType.BROKEN_AUTHENTICATION)
+                    .isCompliance(false)
+                    .complianceType("")
+                    .filePath(context.getFilePath())
+                    .build());
+        }
+    }
+
+    @Override
+    public void visitMethodCall(PsiMethodCallExpression expression, ScanContext context) {
+        // 3. Plaintext Password Storage
+        if (plainStoragePasswordDetector.isPlaintextPasswordStorage(expression)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition vulnerabilityDefinition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("309");
+            context.report(expression, ScanResult.builder()
+                    .vulnerabilityDefinition(vulnerabilityDefinition)
+                    .message("Plaintext password storage detected.")
+                    .lineNumber(lineNumber)
+                    .type(VulnerabilityType.BROKEN_AUTHENTICATION)
+                    .isCompliance(false)
+                    .complianceType("")
+                    .filePath(context.getFilePath())
+                    .build());
+        }
+
+        // 4. Session Fixation
+        if (isSessionFixation(expression)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition vulnerabilityDefinition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("310");
+            context.report(expression, ScanResult.builder()
+                    .vulnerabilityDefinition(vulnerabilityDefinition)
+                    .message("Potential session fixation detected. Regenerate session IDs.")
+                    .lineNumber(lineNumber)
+                    .type(VulnerabilityType.BROKEN_AUTHENTICATION)
+                    .isCompliance(false)
+                    .complianceType("")
+                    .filePath(context.getFilePath())
+                    .build());
+        }
 
-        return results;
+        // 5. JWT Token Misuse
+        if (isWeakJWTUsage(expression)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition vulnerabilityDefinition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("311");
+            context.report(expression, ScanResult.builder()
+                    .vulnerabilityDefinition(vulnerabilityDefinition)
+                    .message("Weak JWT signing detected. Use strong signing algorithms and secure keys.")
+                    .lineNumber(lineNumber)
+                    .type(VulnerabilityType.BROKEN_AUTHENTICATION)
+                    .isCompliance(false)
+                    .complianceType("")
+                    .filePath(context.getFilePath())
+                    .build());
+        }
     }
 
 
@@ -1,76 +1,75 @@
 package org.example.safecode.detection.rules.insecure_deserialization;
 
 import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.detection.taint.TaintAnalyzer;
+import org.example.safecode.detection.taint.TaintSink;
+import org.example.safecode.detection.taint.TaintedSink;
+import org.example.safecode.enums.NodeKind;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class InsecureDeserializationRule extends BaseRule {
 
     @Override
-    public List<ScanResult> scan(PsiFile psiFile) {
-        List<ScanResult> results = new ArrayList<>();
-        String filePath = psiFile.getVirtualFile().getPath();
-
-        psiFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
-                super.visitMethodCallExpression(expression);
-
-                PsiReferenceExpression methodExpression = expression.getMethodExpression();
-                String methodName = methodExpression.getReferenceName();
-                PsiExpression qualifier = methodExpression.getQualifierExpression();
-
-                // 1. Detect Dangerous Deserialization APIs
-                if (isDangerousDeserializationMethod(methodName)) {
-                    int lineNumber = getLineNumber(expression);
-                    VulnerabilityDefinition definition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("412");
-                    results.add(createScanResult(definition, filePath, lineNumber));
-                }
-
-                // 2. Detect Deserialization from Untrusted Sources
-                if (isInputFromUntrustedSource(expression)) {
-                    int lineNumber = getLineNumber(expression);
-                    VulnerabilityDefinition definition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("413");
-                    results.add(createScanResult(definition, filePath, lineNumber));
-                }
-            }
-
-            @Override
-            public void visitVariable(PsiVariable variable) {
-                super.visitVariable(variable);
+    public Set<NodeKind> getInterests() {
+        return EnumSet.of(NodeKind.METHOD, NodeKind.METHOD_CALL, NodeKind.VARIABLE, NodeKind.IMPORT);
+    }
 
-                // 3. Detect Missing Validation of Deserialized Objects
-                if (isDeserializedObject(variable)) {
-                    int lineNumber = getLineNumber(variable);
-                    VulnerabilityDefinition definition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("414");
-                    results.add(createScanResult(definition, filePath, lineNumber));
-                }
+    @Override
+    public void visitMethod(PsiMethod method, ScanContext context) {
+        // 2. Detect Deserialization from Untrusted Sources, in the method or in a callee it passes request input to
+        for (TaintedSink sink : TaintAnalyzer.findTaintedSinks(method, context)) {
+            if (sink.sink() == TaintSink.DESERIALIZATION && sink.isUntrusted()) {
+                int lineNumber = getLineNumber(sink.expression());
+                VulnerabilityDefinition definition =
+                        VulnerabilityDefinitionLoader.getDefinitionById("413");
+                context.report(sink.expression(), createScanResult(definition, context.getFilePath(), lineNumber));
             }
+        }
+    }
 
-            @Override
-            public void visitImportStatement(PsiImportStatement statement) {
-                super.visitImportStatement(statement);
+    @Override
+    public void visitMethodCall(PsiMethodCallExpression expression, ScanContext context) {
+        PsiReferenceExpression methodExpression = expression.getMethodExpression();
+        String methodName = methodExpression.getReferenceName();
+
+        // 1. Detect Dangerous Deserialization APIs
+        if (isDangerousDeserializationMethod(methodName)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition definition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("412");
+            context.report(expression, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
+    }
 
-                // 4. Detect Usage of Vulnerable Libraries
-                String importedClass = statement.getQualifiedName();
-                if (isVulnerableLibrary(importedClass)) {
-                    int lineNumber = getLineNumber(statement);
-                    VulnerabilityDefinition definition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("415");
-                    results.add(createScanResult(definition, filePath, lineNumber));
-                }
-            }
-        });
+    @Override
+    public void visitVariable(PsiVariable variable, ScanContext context) {
+        // 3. Detect Missing Validation of Deserialized Objects
+        if (isDeserializedObject(variable)) {
+            int lineNumber = getLineNumber(variable);
+            VulnerabilityDefinition definition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("414");
+            context.report(variable, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
+    }
 
-        return results;
+    @Override
+    public void visitImport(PsiImportStatement statement, ScanContext context) {
+        // 4. Detect Usage of Vulnerable Libraries
+        String importedClass = statement.getQualifiedName();
+        if (isVulnerableLibrary(importedClass)) {
+            int lineNumber = getLineNumber(statement);
+            VulnerabilityDefinition definition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("415");
+            context.report(statement, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
     }
 
     // 1. Check for Dangerous Deserialization Methods
@@ -78,20 +77,6 @@ public class InsecureDeserializationRule extends BaseRule {
         return "readObject".equals(methodName) || "readUnshared".equals(methodName);
     }
 
-    // 2. Check if Input Comes from an Untrusted Source
-    private boolean isInputFromUntrustedSource(PsiMethodCallExpression expression) {
-        PsiExpression[] arguments = expression.getArgumentList().getExpressions();
-        for (PsiExpression arg : arguments) {
-            String argText = arg.getText();
-            if (argText.contains("request.getParameter") ||
-                    argText.contains("getInputStream") ||
-                    argText.contains("getHeader")) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     // 3. Check for Deserialized Objects
     private boolean isDeserializedObject(PsiVariable variable) {
         PsiType type = variable.getType();
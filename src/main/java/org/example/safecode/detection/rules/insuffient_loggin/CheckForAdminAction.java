@@ -1,25 +1,14 @@
 package org.example.safecode.detection.rules.insuffient_loggin;
 
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiMethodCallExpression;
-
-import java.util.List;
+import org.example.safecode.utils.KeywordListLoader;
+import org.example.safecode.utils.KeywordMatcher;
 
 public class CheckForAdminAction {
+    // Typical administrative actions, matched anywhere in the method name
+    private static final KeywordMatcher ADMIN_ACTIONS =
+            KeywordMatcher.of(KeywordListLoader.getKeywords(KeywordListLoader.ADMIN_ACTIONS));
 
     public  boolean isAdministrativeAction(String methodName) {
-        // Regular expressions for typical administrative actions
-        List<String> adminPatterns = List.of(
-                ".*createUser.*", ".*deleteUser.*", ".*updateUserRole.*", ".*resetPassword.*", ".*deactivateUser.*",
-                ".*addUser.*", ".*removeUser.*", ".*assignRole.*", ".*revokeRole.*", ".*managePermissions.*",
-                ".*activateAccount.*", ".*suspendAccount.*", ".*unlockAccount.*", ".*changeUserSettings.*"
-        );
-
-        for (String pattern : adminPatterns) {
-            if (methodName.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+        return ADMIN_ACTIONS.containsAny(methodName);
     }
 }
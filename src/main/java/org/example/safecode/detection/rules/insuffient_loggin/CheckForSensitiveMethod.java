@@ -1,25 +1,13 @@
 package org.example.safecode.detection.rules.insuffient_loggin;
 
-import java.util.List;
+import org.example.safecode.utils.KeywordListLoader;
+import org.example.safecode.utils.KeywordMatcher;
 
 public class CheckForSensitiveMethod {
-    public  boolean isSensitiveMethod(String methodName) {
-        List<String> sensitivePatterns = List.of(
-                ".*login.*", ".*logout.*", ".*changePassword.*", ".*accessSensitiveData.*",
-                ".*viewMedicalRecord.*", ".*updateMedicalRecord.*", ".*deleteMedicalRecord.*",
-                ".*scheduleAppointment.*", ".*cancelAppointment.*", ".*prescribeMedication.*",
-                ".*viewLabResults.*", ".*updateLabResults.*", ".*accessPatientData.*", ".*getPatientData.*",
-                ".*transferFunds.*", ".*viewAccountBalance.*", ".*updateAccountDetails.*",
-                ".*processPayment.*", ".*refundPayment.*", ".*applyForLoan.*",
-                ".*approveLoan.*", ".*rejectLoan.*", ".*viewTransactionHistory.*",
-                ".*downloadStatement.*", ".*updateCreditCardInfo.*"
-        );
+    private static final KeywordMatcher SENSITIVE_METHODS =
+            KeywordMatcher.of(KeywordListLoader.getKeywords(KeywordListLoader.SENSITIVE_METHODS));
 
-        for (String pattern : sensitivePatterns) {
-            if (methodName.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
+    public  boolean isSensitiveMethod(String methodName) {
+        return SENSITIVE_METHODS.containsAny(methodName);
     }
 }
@@ -1,86 +1,87 @@
 package org.example.safecode.detection.rules.insuffient_loggin;
 
 import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.enums.NodeKind;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class InsufficientLoggingMonitoringRule extends BaseRule {
-    CheckForLoggingStatement checkForLoggingStatement= new CheckForLoggingStatement();
-    CheckForAdminAction checkForAdminAction= new CheckForAdminAction();
-    CheckForSensitiveMethod checkForSensitiveMethod= new CheckForSensitiveMethod();
+    private final CheckForLoggingStatement checkForLoggingStatement = new CheckForLoggingStatement();
+    private final CheckForAdminAction checkForAdminAction = new CheckForAdminAction();
+    private final CheckForSensitiveMethod checkForSensitiveMethod = new CheckForSensitiveMethod();
     @Override
-    public List<ScanResult> scan(PsiFile psiFile) {
-        List<ScanResult> results = new ArrayList<>();
-        String filePath = psiFile.getVirtualFile().getPath();
-        System.out.println("file........ " + filePath);
-
-        psiFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitMethod(PsiMethod method) {
-                super.visitMethod(method);
-
-                String methodName = method.getName();
-                System.out.println("Visiting method: " + methodName);
-
-                // 1. Check for missing audit logs for administrative actions
-                if (checkForAdminAction.isAdministrativeAction(method.getName())) {
-                    if (!checkForLoggingStatement.hasLoggingStatement(method)) {
-                        int lineNumber = getLineNumber(method);
-                        VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("519");
-                        results.add(createScanResult(definition, filePath, lineNumber));
-                    }
-                }
-
-                // 2. Check for lack of security event logging
-                if (checkForSensitiveMethod.isSensitiveMethod(methodName) && !checkForLoggingStatement.hasLoggingStatement(method)) {
-                    int lineNumber = getLineNumber(method);
-                    VulnerabilityDefinition definition =
-                            VulnerabilityDefinitionLoader.getDefinitionById("516");
-                    results.add(createScanResult(definition, filePath, lineNumber));
-                }
-
-
-
-                    // Analyze the method body
-                    PsiCodeBlock body = method.getBody();
-                    if (body != null) {
-                        body.accept(new JavaRecursiveElementVisitor() {
-                            @Override
-                            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
-                                super.visitMethodCallExpression(expression);
-
-                                String callMethodName = expression.getMethodExpression().getReferenceName();
-                                System.out.println("Method call detected: " + callMethodName + ", Full text: " + expression.getText());
-
-                                // 3. Check for missing exception/error logging
-                                if (isCatchBlock(expression) && !checkForLoggingStatement.hasErrorLogging(expression)) {
-                                    int lineNumber = getLineNumber(expression);
-                                    VulnerabilityDefinition definition =
-                                            VulnerabilityDefinitionLoader.getDefinitionById("517");
-                                    results.add(createScanResult(definition, filePath, lineNumber));
-                                }
-
-                                // 4. Detect insecure logging practices
-                                if (checkForLoggingStatement.hasLoggingStatement(expression)
-                                        && checkForLoggingStatement.isInsecureLogging(expression)) {
-                                    int lineNumber = getLineNumber(expression);
-                                    VulnerabilityDefinition definition =
-                                            VulnerabilityDefinitionLoader.getDefinitionById("518");
-                                    results.add(createScanResult(definition, filePath, lineNumber));
-                                }
-
-                            }
-                        });
-                    }
+    public Set<NodeKind> getInterests() {
+        return EnumSet.of(NodeKind.METHOD, NodeKind.METHOD_EXIT, NodeKind.METHOD_CALL);
+    }
+
+    @Override
+    public void visitMethod(PsiMethod method, ScanContext context) {
+        // Track whether a logging statement shows up anywhere in this method's body
+        methodFrames(context).push(new boolean[]{false});
+    }
+
+    @Override
+    public void leaveMethod(PsiMethod method, ScanContext context) {
+        boolean hasLogging = methodFrames(context).pop()[0];
+        String methodName = method.getName();
+
+        // 1. Check for missing audit logs for administrative actions
+        if (checkForAdminAction.isAdministrativeAction(methodName) && !hasLogging) {
+            int lineNumber = getLineNumber(method);
+            VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("519");
+            context.report(method, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
+
+        // 2. Check for lack of security event logging
+        if (checkForSensitiveMethod.isSensitiveMethod(methodName) && !hasLogging) {
+            int lineNumber = getLineNumber(method);
+            VulnerabilityDefinition definition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("516");
+            context.report(method, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
+    }
 
+    @Override
+    public void visitMethodCall(PsiMethodCallExpression expression, ScanContext context) {
+        if (!context.isInsideMethod()) {
+            return;
+        }
+
+        boolean isLoggingStatement = checkForLoggingStatement.hasLoggingStatement(expression);
+        if (isLoggingStatement) {
+            // A log call counts for every enclosing method, including the outer ones of nested classes
+            for (boolean[] frame : methodFrames(context)) {
+                frame[0] = true;
             }
-        });
-        return results;
+        }
+
+        // 3. Check for missing exception/error logging
+        if (isCatchBlock(expression) && !checkForLoggingStatement.hasErrorLogging(expression)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition definition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("517");
+            context.report(expression, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
+
+        // 4. Detect insecure logging practices
+        if (isLoggingStatement && checkForLoggingStatement.isInsecureLogging(expression)) {
+            int lineNumber = getLineNumber(expression);
+            VulnerabilityDefinition definition =
+                    VulnerabilityDefinitionLoader.getDefinitionById("518");
+            context.report(expression, createScanResult(definition, context.getFilePath(), lineNumber));
+        }
+    }
+
+    private Deque<boolean[]> methodFrames(ScanContext context) {
+        return context.getState(this, ArrayDeque::new);
     }
 
 
@@ -2,70 +2,69 @@ package org.example.safecode.detection.rules.security_miconfiguration;
 
 import com.intellij.psi.*;
 import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.detection.KeyValueScanner;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.enums.NodeKind;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.LineOffsetIndex;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Slf4j
 public class SecurityMisconfigurationRule extends BaseRule {
+    private final PropertiesFileCredentialDetector propertiesFileCredentialDetector = new PropertiesFileCredentialDetector();
 
-    public List<ScanResult> scan(PsiFile psiFile) {
-
-
-        List<ScanResult> results = new ArrayList<>();
+    @Override
+    public Set<NodeKind> getInterests() {
+        return EnumSet.of(NodeKind.CLASS, NodeKind.FILE);
+    }
 
+    @Override
+    public void visitClass(PsiClass psiClass, ScanContext context) {
         // Step 1: Find classes annotated with @Configuration and @EnableWebSecurity
-        psiFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitClass(PsiClass psiClass) {
-                super.visitClass(psiClass);
-
-                if (isSecurityConfigClass(psiClass)) {
-                    log.info("inside isSecurityConfigClass");
-                    // Step 2: Analyze methods in the security configuration class
-                    for (PsiMethod method : psiClass.getMethods()) {
-                        if (isConfigureMethod(method)) {
-                            log.info("inside isConfigureMethod");
-
-                            // Delegate to MissingSecurityHeadersDetector
-                            MissingSecurityHeadersDetector detector = new MissingSecurityHeadersDetector();
-                            if (detector.isSecurityHeadersMissing(method)) {
-                                VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("601");
-                                addResult(results, "Missing or improperly configured HTTP security headers.",
-                                        method, psiFile.getVirtualFile().getPath(),definition);
-                            }
-
-//                            // Check for HTTP usage instead of HTTPS
-                            HttpUsageDetector httpUsageDetector = new HttpUsageDetector();
-                            if (httpUsageDetector.isNotSecured(method)) {
-                                VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("602");
-                                addResult(results, "HTTPS is not enforced. HTTP traffic may be insecure.",
-                                        method, psiFile.getVirtualFile().getPath(),definition);
-                            }
-
-
-
-                        }
+        if (isSecurityConfigClass(psiClass)) {
+            log.info("inside isSecurityConfigClass");
+            // Step 2: Analyze methods in the security configuration class
+            for (PsiMethod method : psiClass.getMethods()) {
+                if (isConfigureMethod(method)) {
+                    log.info("inside isConfigureMethod");
+
+                    // Delegate to MissingSecurityHeadersDetector
+                    MissingSecurityHeadersDetector detector = new MissingSecurityHeadersDetector();
+                    if (detector.isSecurityHeadersMissing(method)) {
+                        VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("601");
+                        addResult(context, "Missing or improperly configured HTTP security headers.",
+                                method, context.getFilePath(),definition);
                     }
-                }
-            }
-        });
-        // Step 2: Handle Properties files
-        if (psiFile.getName().endsWith(".properties") || psiFile.getName().endsWith(".yml")) {
-            System.out.println("Scanning properties file: " + psiFile.getName());
+
+//                    // Check for HTTP usage instead of HTTPS
+                    HttpUsageDetector httpUsageDetector = new HttpUsageDetector();
+                    if (httpUsageDetector.isNotSecured(method)) {
+                        VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("602");
+                        addResult(context, "HTTPS is not enforced. HTTP traffic may be insecure.",
+                                method, context.getFilePath(),definition);
+                    }
+
 
 
-            PropertiesFileCredentialDetector propertiesFileCredentialDetector = new PropertiesFileCredentialDetector();
-            List<ScanResult> propertyResults = propertiesFileCredentialDetector.detectHardcodedCredentials(psiFile);
-            results.addAll(propertyResults);
+                }
+            }
         }
+    }
 
-        return results;
+    @Override
+    public void visitFile(PsiFile psiFile, ScanContext context) {
+        // Step 2: Handle Properties files
+        if (KeyValueScanner.isPropertiesFile(psiFile) || KeyValueScanner.isYamlFile(psiFile)) {
+            for (ScanResult result : propertiesFileCredentialDetector.detectHardcodedCredentials(psiFile)) {
+                context.report(psiFile, result);
+            }
+        }
     }
 
     private boolean isSecurityConfigClass(PsiClass psiClass) {
@@ -91,11 +90,11 @@ public class SecurityMisconfigurationRule extends BaseRule {
     }
 
 
-    private void addResult(List<ScanResult> results, String message, PsiElement element, String filePath,
+    private void addResult(ScanContext context, String message, PsiElement element, String filePath,
                            VulnerabilityDefinition definition) {
-        int lineNumber = getLineNumber(element);
+        int lineNumber = LineOffsetIndex.getLineNumber(element, element.getTextOffset());
          // Replace with the correct ID
-        results.add(ScanResult.builder()
+        context.report(element, ScanResult.builder()
                 .vulnerabilityDefinition(definition)
                 .recommendations(definition.getRecommendations())
                 .message(message)
@@ -105,11 +104,5 @@ public class SecurityMisconfigurationRule extends BaseRule {
                 .build());
     }
 
-    public int getLineNumber(PsiElement element) {
-        return PsiDocumentManager.getInstance(element.getProject())
-                .getDocument(element.getContainingFile())
-                .getLineNumber(element.getTextOffset()) + 1;
-    }
-
 
 }
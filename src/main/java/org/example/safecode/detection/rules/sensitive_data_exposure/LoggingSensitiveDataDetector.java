@@ -1,50 +1,39 @@
 package org.example.safecode.detection.rules.sensitive_data_exposure;
 
-import com.intellij.openapi.editor.Document;
 import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.KeywordListLoader;
+import org.example.safecode.utils.KeywordMatcher;
+import org.example.safecode.utils.LineOffsetIndex;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
-import org.jetbrains.annotations.NotNull;
-
-import java.util.ArrayList;
-import java.util.List;
 
 public class LoggingSensitiveDataDetector {
-    private static final List<String> SENSITIVE_KEYWORDS = List.of("password", "secret", "key", "token", "credential");
+    private static final KeywordMatcher SENSITIVE_KEYWORDS =
+            KeywordMatcher.ignoringCase(KeywordListLoader.getKeywords(KeywordListLoader.SENSITIVE_DATA));
 
     /**
-     * Detects if a method contains logging of sensitive information.
+     * Detects if a method call logs sensitive information.
      *
-     * @param method The method to analyze.
-     * @return A list of ScanResult with specific line numbers where sensitive data is logged.
+     * @param expression The method call to analyze.
+     * @param context    The scan context the result is reported to, with the line number of the logging call.
      */
-    public List<ScanResult> detectLoggingSensitiveData(PsiMethod method) {
-        List<ScanResult> results = new ArrayList<>();
-
-        method.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
-                super.visitMethodCallExpression(expression);
-
-                // Check if it's a logging call
-                String methodText = expression.getText().toLowerCase();
-                if (isLoggingCall(methodText)) {
-                    // Check if sensitive keywords are being logged
-                    PsiExpression[] arguments = expression.getArgumentList().getExpressions();
-                    for (PsiExpression argument : arguments) {
-                        if (isSensitiveArgument(argument)) {
-                            // Add the result for this specific logging call
-                            results.add(createScanResult(expression));
-                            break;
-                        }
-                    }
+    public void detectLoggingSensitiveData(PsiMethodCallExpression expression, ScanContext context) {
+        // Check if it's a logging call
+        String methodText = expression.getText().toLowerCase();
+        if (isLoggingCall(methodText)) {
+            // Check if sensitive keywords are being logged
+            PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+            for (PsiExpression argument : arguments) {
+                if (isSensitiveArgument(argument)) {
+                    // Add the result for this specific logging call
+                    context.report(expression, createScanResult(expression));
+                    break;
                 }
             }
-        });
-
-        return results;
+        }
     }
 
     /**
@@ -83,12 +72,7 @@ public class LoggingSensitiveDataDetector {
      * Checks if a text contains sensitive keywords.
      */
     private boolean containsSensitiveKeyword(String text) {
-        for (String keyword : SENSITIVE_KEYWORDS) {
-            if (text.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
+        return SENSITIVE_KEYWORDS.containsAny(text);
     }
 
     /**
@@ -138,7 +122,7 @@ public class LoggingSensitiveDataDetector {
      */
     private ScanResult createScanResult(PsiMethodCallExpression expression) {
         VulnerabilityDefinition definition= VulnerabilityDefinitionLoader.getDefinitionById("701");
-        int lineNumber = getLineNumber(expression);
+        int lineNumber = LineOffsetIndex.getLineNumber(expression, expression.getTextOffset());
         return ScanResult.builder()
                 .vulnerabilityDefinition(definition)
                 .message("Sensitive data is logged.")
@@ -149,17 +133,4 @@ public class LoggingSensitiveDataDetector {
                 .build();
     }
 
-    /**
-     * Gets the line number of a specific PsiElement.
-     */
-    private int getLineNumber(PsiElement element) {
-        PsiFile file = element.getContainingFile();
-        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(element.getProject());
-        Document document = documentManager.getDocument(file);
-
-        if (document != null) {
-            return document.getLineNumber(element.getTextOffset()) + 1; // Convert 0-based to 1-based line numbers
-        }
-        return -1; // Default to -1 if the document is null
-    }
 }
\ No newline at end of file
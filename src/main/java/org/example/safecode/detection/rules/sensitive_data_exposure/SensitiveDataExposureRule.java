@@ -1,53 +1,55 @@
 package org.example.safecode.detection.rules.sensitive_data_exposure;
 
-import com.intellij.openapi.editor.Document;
 import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
 import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.enums.NodeKind;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.LineOffsetIndex;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 public class SensitiveDataExposureRule extends BaseRule {
-    private final Set<String> processedFiles = new HashSet<>();
+    private final LoggingSensitiveDataDetector loggingDetector = new LoggingSensitiveDataDetector();
+    private final HardcodedSensitiveInformationDetector hardcodedDetector = new HardcodedSensitiveInformationDetector();
 
     @Override
-    public List<ScanResult> scan(PsiFile psiFile) {
-        List<ScanResult> results = new ArrayList<>();
-        LoggingSensitiveDataDetector loggingDetector = new LoggingSensitiveDataDetector();
-        HardcodedSensitiveInformationDetector hardcodedDetector = new HardcodedSensitiveInformationDetector();
-
-
-        psiFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitMethod(PsiMethod method) {
-                super.visitMethod(method);
+    public Set<NodeKind> getInterests() {
+        return EnumSet.of(NodeKind.FILE, NodeKind.METHOD_CALL, NodeKind.FIELD, NodeKind.ASSIGNMENT);
+    }
 
-                // Get detailed scan results for logging sensitive data
-                List<ScanResult> loggingResults = loggingDetector.detectLoggingSensitiveData(method);
-                results.addAll(loggingResults);
+    @Override
+    public void visitFile(PsiFile psiFile, ScanContext context) {
+        // Detect hardcoded sensitive information in properties and YAML files
+        hardcodedDetector.detectInKeyValueFile(psiFile, context);
+    }
 
-            }
-        });
-        // Detect hardcoded sensitive information
-        String filePath = psiFile.getVirtualFile().getPath();
-        if (!processedFiles.contains(filePath)) { // Only process the file once
-            processedFiles.add(filePath); // Mark the file as processed
-            List<ScanResult> hardcodedResults = hardcodedDetector.detectHardcodedSensitiveInformation(psiFile);
-            results.addAll(hardcodedResults);
+    @Override
+    public void visitMethodCall(PsiMethodCallExpression expression, ScanContext context) {
+        // Get detailed scan results for logging sensitive data
+        if (context.isInsideMethod()) {
+            loggingDetector.detectLoggingSensitiveData(expression, context);
         }
+    }
 
-        return results;
+    @Override
+    public void visitField(PsiField field, ScanContext context) {
+        hardcodedDetector.detectInField(field, context);
+    }
+
+    @Override
+    public void visitAssignment(PsiAssignmentExpression expression, ScanContext context) {
+        hardcodedDetector.detectInAssignment(expression, context);
     }
 
     private void addResult(List<ScanResult> results, String message, PsiElement element,
                            VulnerabilityDefinition definition) {
-        int lineNumber = getLineNumber(element);
+        int lineNumber = LineOffsetIndex.getLineNumber(element, element.getTextOffset());
         results.add(ScanResult.builder()
                 .message(message)
                 .type(VulnerabilityType.SENSITIVE_DATA_EXPOSURE)
@@ -58,15 +60,4 @@ public class SensitiveDataExposureRule extends BaseRule {
                 .build());
     }
 
-    public int getLineNumber(PsiElement element) {
-        PsiFile file = element.getContainingFile();
-        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(element.getProject());
-        Document document = documentManager.getDocument(file);
-
-        if (document != null) {
-            return document.getLineNumber(element.getTextOffset()) + 1; // Add 1 because line numbers are 0-based
-        }
-        return -1; // Return -1 if the document is null
-    }
-
 }
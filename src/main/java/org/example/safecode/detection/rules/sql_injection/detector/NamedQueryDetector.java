@@ -1,15 +1,31 @@
 package org.example.safecode.detection.rules.sql_injection.detector;
 
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.*;
+import com.intellij.psi.search.LocalSearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.util.PsiTreeUtil;
+import org.example.safecode.detection.ScanContext;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Detects named queries whose parameters are bound from variables. No rule calls it yet, only the detector
+ * benchmark: {@code InjectionRule} runs the taint based {@link TaintedQueryDetector}, so the scoped, per-file
+ * usage search below takes effect once the detector is wired into a rule callback.
+ */
 public class NamedQueryDetector {
 
     /**
-     * Detects named query injection.
+     * Detects named query injection, remembering the usages of every query variable in the scan context so each
+     * variable is searched for once per file.
+     *
+     * @param expression The method call to analyze.
+     * @param context    The scan context of the file, or null to search without remembering.
      */
-    public static boolean isNamedQueryInjection(PsiMethodCallExpression expression) {
+    public static boolean isNamedQueryInjection(PsiMethodCallExpression expression, ScanContext context) {
         PsiReferenceExpression methodExpression = expression.getMethodExpression();
         String methodName = methodExpression.getReferenceName();
 
@@ -21,7 +37,8 @@ public class NamedQueryDetector {
                 PsiVariable variable = (PsiVariable) parent;
 
                 // Traverse usage of the variable
-                for (PsiReference reference : ReferencesSearch.search(variable)) {
+                for (PsiReference reference : findUsages(variable, context)) {
+                    ProgressManager.checkCanceled();
                     PsiElement usage = reference.getElement();
                     if (usage instanceof PsiReferenceExpression) {
                         PsiMethodCallExpression usageCall = PsiTreeUtil.getParentOfType(usage, PsiMethodCallExpression.class);
@@ -36,6 +53,7 @@ public class NamedQueryDetector {
                 // Handle in-line usage (e.g., direct `createNamedQuery().setParameter(...)`)
                 PsiElement nextSibling = parent.getNextSibling();
                 while (nextSibling != null) {
+                    ProgressManager.checkCanceled();
                     if (nextSibling instanceof PsiExpressionStatement) {
                         PsiExpression nextExpression = ((PsiExpressionStatement) nextSibling).getExpression();
                         if (nextExpression instanceof PsiMethodCallExpression) {
@@ -53,6 +71,26 @@ public class NamedQueryDetector {
         return false;
     }
 
+    /**
+     * Finds the references to a query variable. The search is limited to the enclosing method, or the enclosing
+     * class for fields, so it walks a small subtree instead of querying the project-wide word index.
+     */
+    private static Collection<PsiReference> findUsages(PsiVariable variable, ScanContext context) {
+        if (context == null) {
+            return searchUsages(variable);
+        }
+        Map<PsiVariable, Collection<PsiReference>> usages = context.getState(NamedQueryDetector.class, HashMap::new);
+        return usages.computeIfAbsent(variable, NamedQueryDetector::searchUsages);
+    }
+
+    private static Collection<PsiReference> searchUsages(PsiVariable variable) {
+        PsiElement scope = PsiTreeUtil.getParentOfType(variable, PsiMethod.class, PsiClass.class);
+        if (scope == null) {
+            scope = variable.getContainingFile();
+        }
+        return ReferencesSearch.search(variable, new LocalSearchScope(scope)).findAll();
+    }
+
     /**
      * Checks if the method call is a `setParameter` and uses unsanitized input.
      */
@@ -1,10 +1,10 @@
 package org.example.safecode.detection.rules.sql_injection.detector;
 
-import com.intellij.openapi.editor.Document;
 import com.intellij.psi.*;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.ScanResult;
 import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.LineOffsetIndex;
 import org.example.safecode.utils.VulnerabilityDefinitionLoader;
 
 import java.util.List;
@@ -23,7 +23,7 @@ public class NativeQueryDetector {
                     PsiElement parent = annotation.getParent().getParent();
                     if (parent instanceof PsiMethod) {
                         PsiMethod method = (PsiMethod) parent;
-                        int lineNumber = getLineNumber(method);
+                        int lineNumber = LineOffsetIndex.getLineNumber(method);
                         VulnerabilityDefinition vulnerabilityDefinition = VulnerabilityDefinitionLoader.getDefinitionById("105");
                         results.add(ScanResult.builder()
                                 .vulnerabilityDefinition(vulnerabilityDefinition)
@@ -41,12 +41,4 @@ public class NativeQueryDetector {
         }
     }
 
-    protected static int getLineNumber(PsiElement element) {
-        PsiFile file = element.getContainingFile();
-        Document document = PsiDocumentManager.getInstance(element.getProject()).getDocument(file);
-        if (document != null) {
-            return document.getLineNumber(element.getTextRange().getStartOffset()) + 1;
-        }
-        return -1; // Return -1 if the line number cannot be determined
-    }
 }
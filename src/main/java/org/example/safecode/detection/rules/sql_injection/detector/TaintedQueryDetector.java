@@ -0,0 +1,60 @@
+package org.example.safecode.detection.rules.sql_injection.detector;
+
+import com.intellij.psi.*;
+import org.example.safecode.detection.ScanContext;
+import org.example.safecode.detection.taint.TaintAnalyzer;
+import org.example.safecode.detection.taint.TaintSink;
+import org.example.safecode.detection.taint.TaintedSink;
+import org.example.safecode.enums.MessageTemplate;
+import org.example.safecode.enums.VulnerabilitySeverity;
+import org.example.safecode.enums.VulnerabilityType;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.LineOffsetIndex;
+import org.example.safecode.utils.VulnerabilityDefinitionLoader;
+
+public class TaintedQueryDetector {
+
+    /**
+     * Detects SQL built from method parameters or request input that reaches a query method, in the method
+     * itself or through a method it passes request input on to, possibly in another file.
+     *
+     * @param method  The method whose body to analyze.
+     * @param context The scan context findings are reported to.
+     */
+    public void detectTaintedQueries(PsiMethod method, ScanContext context) {
+        for (TaintedSink sink : TaintAnalyzer.findTaintedSinks(method, context)) {
+            if (sink.sink() != TaintSink.SQL_QUERY) {
+                continue;
+            }
+            if (sink.callee() == null) {
+                PsiMethodCallExpression call = (PsiMethodCallExpression) sink.expression().getParent().getParent();
+                String methodName = call.getMethodExpression().getReferenceName();
+                context.report(sink.expression(), createScanResult(MessageTemplate.TAINTED_QUERY, methodName, sink.expression()));
+            } else if (sink.isUntrusted()) {
+                // Parameters passed on are reported where the callee builds the query
+                context.report(sink.expression(), createScanResult(
+                        MessageTemplate.TAINTED_QUERY_CALLEE, sink.callee().getName(), sink.expression()));
+            }
+        }
+    }
+
+    /**
+     * Creates a ScanResult for a detected issue.
+     */
+    private ScanResult createScanResult(MessageTemplate message, String name, PsiExpression query) {
+        int lineNumber = LineOffsetIndex.getLineNumber(query, query.getTextOffset());
+        String filePath = query.getContainingFile().getVirtualFile().getPath();
+        VulnerabilityDefinition definition = VulnerabilityDefinitionLoader.getDefinitionById("103");
+
+        return ScanResult.builder()
+                .message(message, name)
+                .type(VulnerabilityType.SQL_INJECTION)
+                .lineNumber(lineNumber)
+                .filePath(filePath)
+                .codeFragment(query.getText())
+                .vulnerabilityDefinition(definition)
+                .severity(VulnerabilitySeverity.HIGH)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.safecode.detection.taint;
+
+/**
+ * The taint transfer function of one method, computed by {@link TaintAnalyzer} and shared across callers through
+ * {@link TaintSummaryCache}. Taint is tracked as a bit set of labels: bit {@code i} stands for the method's
+ * {@code i}-th parameter and {@link TaintAnalyzer#SOURCE} for untrusted request input read inside the method.
+ * A caller applies the summary by substituting the labels of its arguments for the parameter bits.
+ * <p>
+ * Summaries hold no PSI, so they stay valid for as long as the files they were computed from are unchanged.
+ *
+ * @param returnLabels          The labels that may reach the return value.
+ * @param queryLabels           The labels that may reach the SQL argument of a query method, directly or
+ *                              through a callee.
+ * @param deserializationLabels The labels that may reach a deserialization sink, directly or through a callee.
+ */
+public record MethodTaintSummary(long returnLabels, long queryLabels, long deserializationLabels) {
+
+    static final MethodTaintSummary UNKNOWN = new MethodTaintSummary(0, 0, 0);
+
+    public long sinkLabels(TaintSink sink) {
+        return switch (sink) {
+            case SQL_QUERY -> queryLabels;
+            case DESERIALIZATION -> deserializationLabels;
+        };
+    }
+
+    /**
+     * Checks whether the value returned for a call can carry the given parameter's labels.
+     */
+    public boolean returnsParameter(int parameterIndex) {
+        return (returnLabels & TaintAnalyzer.parameterLabel(parameterIndex)) != 0;
+    }
+
+    /**
+     * Checks whether the given parameter can reach a sink of the given kind.
+     */
+    public boolean sinksParameter(int parameterIndex, TaintSink sink) {
+        return (sinkLabels(sink) & TaintAnalyzer.parameterLabel(parameterIndex)) != 0;
+    }
+}
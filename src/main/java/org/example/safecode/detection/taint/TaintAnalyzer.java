@@ -0,0 +1,438 @@
+package org.example.safecode.detection.taint;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.InheritanceUtil;
+import org.example.safecode.detection.ScanContext;
+import org.example.safecode.detection.ScanResultCache;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Def-use taint analysis of a single method body, for the SQL injection and insecure deserialization rules.
+ * <p>
+ * Sources are the method's parameters and request input read through {@code getParameter} and friends. Taint
+ * flows through assignments, string concatenation, {@code StringBuilder} appends and string methods, and
+ * through calls to methods with a body in the project, using their {@link MethodTaintSummary summaries} from
+ * {@link TaintSummaryCache}. Sinks are the string SQL arguments of {@link #QUERY_METHODS} called on one of the
+ * {@link #QUERY_CLASSES}, and the sources objects are deserialized from, in the method itself or in any callee the
+ * method's data is passed on to.
+ * <p>
+ * Parameterized queries are safe by construction: values bound with {@code setParameter} or the setters of a
+ * prepared statement never reach a sink argument, and neither do numbers, booleans, enums and the like, which
+ * cannot carry SQL. Calls into libraries are assumed to return untainted values. The analysis is
+ * flow-insensitive: a variable is tainted if any of its definitions is, which keeps it to a handful of passes
+ * over the definitions of a method.
+ */
+public final class TaintAnalyzer {
+
+    public static final List<String> QUERY_METHODS = List.of("createQuery", "createNativeQuery", "prepareStatement",
+            "prepareCall", "executeQuery", "executeUpdate", "execute", "addBatch");
+
+    /**
+     * The JDBC, JPA, Hibernate and Spring types whose {@link #QUERY_METHODS} take SQL, including subtypes.
+     * {@code Executor.execute(Runnable)} and the like share the method names but are no sinks.
+     */
+    public static final List<String> QUERY_CLASSES = List.of("java.sql.Connection", "java.sql.Statement",
+            "javax.persistence.EntityManager", "jakarta.persistence.EntityManager", "org.hibernate.SharedSessionContract",
+            "org.hibernate.query.QueryProducer", "org.springframework.jdbc.core.JdbcOperations");
+
+    /**
+     * Label of untrusted request input. The lower bits label the parameters.
+     */
+    static final long SOURCE = 1L << 63;
+    private static final int PARAMETER_LABELS = 63;
+
+    private static final Set<String> DESERIALIZING_METHODS = Set.of("readObject", "readUnshared");
+    private static final Set<String> DESERIALIZING_ARGUMENT_METHODS = Set.of("fromXML");
+    private static final Set<String> REQUEST_SOURCE_METHODS = Set.of("getParameter", "getParameterValues",
+            "getParameterMap", "getHeader", "getHeaders", "getQueryString", "getRequestURI", "getPathInfo",
+            "getCookies", "getReader", "getInputStream");
+    private static final Set<String> APPENDING_METHODS = Set.of("append", "insert");
+    private static final Set<String> PROPAGATING_METHODS = Set.of("append", "insert", "concat", "format", "formatted",
+            "join", "valueOf", "toString", "trim", "strip", "toLowerCase", "toUpperCase", "substring", "replace",
+            "replaceAll", "repeat", "getValue");
+    private static final Set<String> SAFE_TYPES = Set.of("java.util.UUID", "java.util.Date", "java.time.LocalDate",
+            "java.time.LocalDateTime", "java.time.Instant", "java.math.BigDecimal", "java.math.BigInteger");
+
+    private TaintAnalyzer() {
+    }
+
+    /**
+     * Returns the sinks tainted data reaches in a method. The result is shared by the rules scanning the same
+     * file, and the method's summary is cached for its callers.
+     */
+    public static List<TaintedSink> findTaintedSinks(PsiMethod method, ScanContext context) {
+        Map<PsiMethod, List<TaintedSink>> analyzed = context.getState(TaintAnalyzer.class, HashMap::new);
+        return analyzed.computeIfAbsent(method, key -> {
+            MethodTaint taint = TaintSummaryCache.getInstance(key.getProject()).analyze(key);
+            return taint != null ? taint.sinks() : List.of();
+        });
+    }
+
+    static MethodTaint analyze(PsiMethod method, TaintSummaryCache cache) {
+        return new Analysis(method, cache).run();
+    }
+
+    static long parameterLabel(int parameterIndex) {
+        return 1L << Math.min(parameterIndex, PARAMETER_LABELS - 1);
+    }
+
+    /**
+     * The result of analyzing a method: its cacheable summary and the sinks found in its body.
+     */
+    record MethodTaint(TaintSummaryCache.Entry entry, List<TaintedSink> sinks) {
+    }
+
+    /**
+     * The state of one analysis run: the labels of each local variable and parameter of the method, and the
+     * summaries of its callees with the files they depend on.
+     */
+    private static final class Analysis {
+        private final PsiMethod method;
+        private final TaintSummaryCache cache;
+        private final Map<PsiVariable, Long> labels = new HashMap<>();
+        private final Map<PsiMethod, MethodTaintSummary> callees = new HashMap<>();
+        private final Map<VirtualFile, Long> dependencies = new HashMap<>();
+
+        Analysis(PsiMethod method, TaintSummaryCache cache) {
+            this.method = method;
+            this.cache = cache;
+        }
+
+        MethodTaint run() {
+            VirtualFile file = TaintSummaryCache.fileOf(method);
+            PsiCodeBlock body = method.getBody();
+            if (body == null) {
+                return new MethodTaint(TaintSummaryCache.Entry.UNKNOWN, List.of());
+            }
+            if (file != null) {
+                dependencies.put(file, ScanResultCache.getModificationStamp(file));
+            }
+            PsiParameter[] parameters = method.getParameterList().getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                labels.put(parameters[i], parameterLabel(i));
+            }
+
+            DefinitionCollector collector = new DefinitionCollector();
+            body.accept(collector);
+
+            // Labels only ever grow, so this terminates; most methods settle after the second pass
+            boolean changed = true;
+            while (changed) {
+                ProgressManager.checkCanceled();
+                changed = false;
+                for (Definition definition : collector.definitions) {
+                    long current = labels.getOrDefault(definition.variable(), 0L);
+                    long updated = current | labelsOf(definition.value());
+                    if (updated != current) {
+                        labels.put(definition.variable(), updated);
+                        changed = true;
+                    }
+                }
+            }
+
+            long returnLabels = 0;
+            for (PsiExpression returnValue : collector.returnValues) {
+                returnLabels |= labelsOf(returnValue);
+            }
+            List<TaintedSink> sinks = new ArrayList<>();
+            Map<TaintSink, Long> sinkLabels = new EnumMap<>(TaintSink.class);
+            addSinks(collector.queries, TaintSink.SQL_QUERY, sinks, sinkLabels);
+            addSinks(collector.deserializations, TaintSink.DESERIALIZATION, sinks, sinkLabels);
+            for (PsiMethodCallExpression call : collector.calls) {
+                addCalleeSinks(call, sinks, sinkLabels);
+            }
+
+            MethodTaintSummary summary = new MethodTaintSummary(returnLabels,
+                    sinkLabels.getOrDefault(TaintSink.SQL_QUERY, 0L),
+                    sinkLabels.getOrDefault(TaintSink.DESERIALIZATION, 0L));
+            return new MethodTaint(new TaintSummaryCache.Entry(file, summary, Map.copyOf(dependencies)), List.copyOf(sinks));
+        }
+
+        private void addSinks(List<PsiExpression> arguments, TaintSink sink, List<TaintedSink> sinks,
+                              Map<TaintSink, Long> sinkLabels) {
+            for (PsiExpression argument : arguments) {
+                long argumentLabels = labelsOf(argument);
+                if (argumentLabels != 0) {
+                    sinks.add(new TaintedSink(argument, sink, argumentLabels, null));
+                    sinkLabels.merge(sink, argumentLabels, (a, b) -> a | b);
+                }
+            }
+        }
+
+        /**
+         * Adds the sinks of a callee that the call passes tainted arguments on to. Request input the callee
+         * reads itself is the callee's finding, not the caller's.
+         */
+        private void addCalleeSinks(PsiMethodCallExpression call, List<TaintedSink> sinks, Map<TaintSink, Long> sinkLabels) {
+            PsiMethod callee = call.resolveMethod();
+            MethodTaintSummary summary = callee != null ? summaryOf(callee) : null;
+            if (summary == null) {
+                return;
+            }
+            PsiExpression[] arguments = call.getArgumentList().getExpressions();
+            int parameterCount = callee.getParameterList().getParametersCount();
+            for (TaintSink sink : TaintSink.values()) {
+                long reaching = 0;
+                for (int i = 0; i < arguments.length && parameterCount > 0; i++) {
+                    if (summary.sinksParameter(Math.min(i, parameterCount - 1), sink)) {
+                        reaching |= labelsOf(arguments[i]);
+                    }
+                }
+                if (reaching != 0) {
+                    sinks.add(new TaintedSink(call, sink, reaching, callee));
+                    sinkLabels.merge(sink, reaching, (a, b) -> a | b);
+                }
+            }
+        }
+
+        /**
+         * Returns the summary of a callee with a body in the project, or null for library methods.
+         */
+        private MethodTaintSummary summaryOf(PsiMethod callee) {
+            if (callee.getBody() == null || callee instanceof PsiCompiledElement) {
+                return null;
+            }
+            MethodTaintSummary summary = callees.get(callee);
+            if (summary == null) {
+                TaintSummaryCache.Entry entry = cache.getEntry(callee);
+                entry.dependencies().forEach(dependencies::putIfAbsent);
+                summary = entry.summary();
+                callees.put(callee, summary);
+            }
+            return summary;
+        }
+
+        private long labelsOf(PsiExpression expression) {
+            if (expression == null || cannotBeTainted(expression.getType())) {
+                return 0;
+            }
+            if (expression instanceof PsiParenthesizedExpression parenthesized) {
+                return labelsOf(parenthesized.getExpression());
+            }
+            if (expression instanceof PsiTypeCastExpression cast) {
+                return labelsOf(cast.getOperand());
+            }
+            if (expression instanceof PsiConditionalExpression conditional) {
+                return labelsOf(conditional.getThenExpression()) | labelsOf(conditional.getElseExpression());
+            }
+            if (expression instanceof PsiAssignmentExpression assignment) {
+                return labelsOf(assignment.getRExpression()) | labelsOf(assignment.getLExpression());
+            }
+            if (expression instanceof PsiPolyadicExpression polyadic) {
+                long result = 0;
+                for (PsiExpression operand : polyadic.getOperands()) {
+                    result |= labelsOf(operand);
+                }
+                return result;
+            }
+            if (expression instanceof PsiReferenceExpression reference) {
+                PsiElement target = reference.resolve();
+                return target instanceof PsiVariable variable ? labels.getOrDefault(variable, 0L) : 0;
+            }
+            if (expression instanceof PsiArrayAccessExpression arrayAccess) {
+                return labelsOf(arrayAccess.getArrayExpression());
+            }
+            if (expression instanceof PsiArrayInitializerExpression initializer) {
+                return labelsOfAll(initializer.getInitializers());
+            }
+            if (expression instanceof PsiNewExpression newExpression) {
+                PsiExpressionList arguments = newExpression.getArgumentList();
+                return labelsOf(newExpression.getArrayInitializer())
+                        | (arguments != null ? labelsOfAll(arguments.getExpressions()) : 0);
+            }
+            if (expression instanceof PsiMethodCallExpression call) {
+                return labelsOfCall(call);
+            }
+            return 0;
+        }
+
+        private long labelsOfCall(PsiMethodCallExpression call) {
+            PsiReferenceExpression methodExpression = call.getMethodExpression();
+            String methodName = methodExpression.getReferenceName();
+            PsiExpression qualifier = methodExpression.getQualifierExpression();
+            PsiExpression[] arguments = call.getArgumentList().getExpressions();
+            if (methodName == null) {
+                return 0;
+            }
+            if (REQUEST_SOURCE_METHODS.contains(methodName) && isRequest(qualifier)) {
+                return SOURCE;
+            }
+            if (PROPAGATING_METHODS.contains(methodName)) {
+                return labelsOf(qualifier) | labelsOfAll(arguments);
+            }
+
+            PsiMethod callee = call.resolveMethod();
+            MethodTaintSummary summary = callee != null ? summaryOf(callee) : null;
+            if (summary == null) {
+                return 0;
+            }
+            long result = summary.returnLabels() & SOURCE;
+            int parameterCount = callee.getParameterList().getParametersCount();
+            for (int i = 0; i < arguments.length && parameterCount > 0; i++) {
+                // Varargs all bind to the last parameter
+                if (summary.returnsParameter(Math.min(i, parameterCount - 1))) {
+                    result |= labelsOf(arguments[i]);
+                }
+            }
+            return result;
+        }
+
+        private long labelsOfAll(PsiExpression[] expressions) {
+            long result = 0;
+            for (PsiExpression expression : expressions) {
+                result |= labelsOf(expression);
+            }
+            return result;
+        }
+
+        private static boolean isRequest(PsiExpression qualifier) {
+            PsiType type = qualifier != null ? qualifier.getType() : null;
+            if (type == null) {
+                return false;
+            }
+            String typeName = type.getCanonicalText();
+            return typeName.endsWith("ServletRequest") || typeName.endsWith("WebRequest");
+        }
+
+        private static boolean cannotBeTainted(PsiType type) {
+            if (type instanceof PsiPrimitiveType || PsiPrimitiveType.getUnboxedType(type) != null) {
+                return true;
+            }
+            if (type instanceof PsiClassType classType) {
+                PsiClass psiClass = classType.resolve();
+                return psiClass != null && (psiClass.isEnum() || SAFE_TYPES.contains(psiClass.getQualifiedName()));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Collects the definitions, return values, calls and sink arguments of a method body. Nested and anonymous
+     * classes are skipped, their methods are analyzed on their own.
+     */
+    private static final class DefinitionCollector extends JavaRecursiveElementWalkingVisitor {
+        private final List<Definition> definitions = new ArrayList<>();
+        private final List<PsiExpression> returnValues = new ArrayList<>();
+        private final List<PsiExpression> queries = new ArrayList<>();
+        private final List<PsiExpression> deserializations = new ArrayList<>();
+        private final List<PsiMethodCallExpression> calls = new ArrayList<>();
+        private int lambdaDepth;
+
+        @Override
+        public void visitClass(PsiClass aClass) {
+        }
+
+        @Override
+        public void visitLambdaExpression(PsiLambdaExpression expression) {
+            lambdaDepth++;
+            super.visitLambdaExpression(expression);
+            lambdaDepth--;
+        }
+
+        @Override
+        public void visitLocalVariable(PsiLocalVariable variable) {
+            super.visitLocalVariable(variable);
+            if (variable.getInitializer() != null) {
+                definitions.add(new Definition(variable, variable.getInitializer()));
+            }
+        }
+
+        @Override
+        public void visitAssignmentExpression(PsiAssignmentExpression expression) {
+            super.visitAssignmentExpression(expression);
+            PsiVariable target = localTarget(expression.getLExpression());
+            if (target != null) {
+                definitions.add(new Definition(target, expression.getRExpression()));
+            }
+        }
+
+        @Override
+        public void visitForeachStatement(PsiForeachStatement statement) {
+            super.visitForeachStatement(statement);
+            definitions.add(new Definition(statement.getIterationParameter(), statement.getIteratedValue()));
+        }
+
+        @Override
+        public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+            super.visitMethodCallExpression(expression);
+            String methodName = expression.getMethodExpression().getReferenceName();
+            PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+            calls.add(expression);
+            if (APPENDING_METHODS.contains(methodName)) {
+                // sb.append(a).append(b) defines sb
+                PsiExpression qualifier = expression.getMethodExpression().getQualifierExpression();
+                while (qualifier instanceof PsiMethodCallExpression call
+                        && APPENDING_METHODS.contains(call.getMethodExpression().getReferenceName())) {
+                    qualifier = call.getMethodExpression().getQualifierExpression();
+                }
+                PsiVariable target = localTarget(qualifier);
+                if (target != null) {
+                    definitions.add(new Definition(target, expression));
+                }
+            } else if (QUERY_METHODS.contains(methodName) && arguments.length > 0 && isQueryCall(expression, arguments[0])) {
+                queries.add(arguments[0]);
+            } else if (DESERIALIZING_ARGUMENT_METHODS.contains(methodName) && arguments.length > 0) {
+                deserializations.add(arguments[0]);
+            } else if (DESERIALIZING_METHODS.contains(methodName)
+                    && expression.getMethodExpression().getQualifierExpression() != null) {
+                deserializations.add(expression.getMethodExpression().getQualifierExpression());
+            }
+        }
+
+        @Override
+        public void visitReturnStatement(PsiReturnStatement statement) {
+            super.visitReturnStatement(statement);
+            if (lambdaDepth == 0 && statement.getReturnValue() != null) {
+                returnValues.add(statement.getReturnValue());
+            }
+        }
+
+        /**
+         * Checks that a call to one of the {@link #QUERY_METHODS} passes SQL text, not a criteria query or a
+         * runnable, to one of the {@link #QUERY_CLASSES}. The receiver is checked as well as the declaring class,
+         * since Hibernate declares {@code createQuery} on interfaces above {@code Session}.
+         */
+        private static boolean isQueryCall(PsiMethodCallExpression call, PsiExpression sql) {
+            if (!InheritanceUtil.isInheritor(sql.getType(), CommonClassNames.JAVA_LANG_CHAR_SEQUENCE)) {
+                return false;
+            }
+            PsiMethod callee = call.resolveMethod();
+            if (callee == null) {
+                return false;
+            }
+            PsiExpression qualifier = call.getMethodExpression().getQualifierExpression();
+            PsiClass receiver = qualifier != null && qualifier.getType() instanceof PsiClassType type ? type.resolve() : null;
+            for (String queryClass : QUERY_CLASSES) {
+                if (InheritanceUtil.isInheritor(callee.getContainingClass(), queryClass)
+                        || InheritanceUtil.isInheritor(receiver, queryClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static PsiVariable localTarget(PsiExpression expression) {
+            while (expression instanceof PsiParenthesizedExpression parenthesized) {
+                expression = parenthesized.getExpression();
+            }
+            if (expression instanceof PsiReferenceExpression reference && reference.getQualifierExpression() == null) {
+                PsiElement target = reference.resolve();
+                if (target instanceof PsiLocalVariable || target instanceof PsiParameter) {
+                    return (PsiVariable) target;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Definition(PsiVariable variable, PsiExpression value) {
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.safecode.detection.taint;
+
+/**
+ * The kinds of sinks {@link TaintAnalyzer} tracks, one per rule that consults it.
+ */
+public enum TaintSink {
+    SQL_QUERY,          // The SQL argument of a query method, see TaintAnalyzer.QUERY_METHODS and QUERY_CLASSES
+    DESERIALIZATION     // The stream or document an object is deserialized from
+}
@@ -0,0 +1,232 @@
+package org.example.safecode.detection.taint;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.example.safecode.detection.FileChangeListener;
+import org.example.safecode.detection.ScanResultCache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project-level cache of {@link MethodTaintSummary method summaries}, keyed by method signature, so a method is
+ * analyzed once however many callers it has and whichever file they are in. A summary depends on the file of its
+ * method and, transitively, on the files of the callees it was computed from; it is only reused while all of them
+ * have the modification stamps they had when it was computed. VFS and PSI change events evict the summaries that
+ * depend on a changed file eagerly.
+ * <p>
+ * Summaries computed while a recursive call was cut off are incomplete: they miss what flows back through the
+ * cut call. They are cached with the top-level analysis they belong to, so each method of a recursive cycle is
+ * analyzed once while the cycle is, and once more afterwards, when the summaries the cycle left behind make the
+ * result complete. The findings of a file also depend on the files of the callees its summaries were computed
+ * from, see {@link #getDependencies}.
+ */
+@Service(Service.Level.PROJECT)
+public final class TaintSummaryCache implements Disposable {
+    private final Map<String, Entry> summaries = new ConcurrentHashMap<>();
+    private final Map<VirtualFile, Set<String>> dependents = new ConcurrentHashMap<>();
+    private final Map<VirtualFile, Set<String>> signaturesByFile = new ConcurrentHashMap<>();
+    private final AtomicLong analysisCounter = new AtomicLong();
+    // The top-level analysis running on this thread, which incomplete summaries are valid within
+    private final ThreadLocal<Long> currentAnalysis = new ThreadLocal<>();
+
+    public TaintSummaryCache(Project project) {
+        FileChangeListener.subscribe(project, this, this::invalidate);
+    }
+
+    public static TaintSummaryCache getInstance(Project project) {
+        return project.getService(TaintSummaryCache.class);
+    }
+
+    /**
+     * Returns the summary of a method with a body, analyzing it on a cache miss. Recursive calls are not
+     * followed; the summary of a method that is already being analyzed is {@link MethodTaintSummary#UNKNOWN}.
+     */
+    public Entry getEntry(PsiMethod method) {
+        String signature = signatureOf(method);
+        Entry entry = signature != null ? summaries.get(signature) : null;
+        if (entry != null && entry.file().equals(fileOf(method)) && entry.isUpToDate() && isUsable(entry)) {
+            return entry;
+        }
+        TaintAnalyzer.MethodTaint taint = analyze(method);
+        return taint != null ? taint.entry() : Entry.UNKNOWN;
+    }
+
+    /**
+     * Analyzes a method afresh, for its sinks, and caches its summary for the callers that come after.
+     *
+     * @return The result of the analysis, or null if the method is already being analyzed further up the stack.
+     */
+    TaintAnalyzer.MethodTaint analyze(PsiMethod method) {
+        boolean topLevel = currentAnalysis.get() == null;
+        if (topLevel) {
+            currentAnalysis.set(analysisCounter.incrementAndGet());
+        }
+        try {
+            RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+            TaintAnalyzer.MethodTaint taint = RecursionManager.doPreventingRecursion(method, false,
+                    () -> TaintAnalyzer.analyze(method, this));
+            String signature = signatureOf(method);
+            if (taint != null && signature != null && taint.entry().file() != null) {
+                Entry entry = stamp.mayCacheNow() ? taint.entry() : taint.entry().incompleteIn(currentAnalysis.get());
+                put(signature, entry);
+                return new TaintAnalyzer.MethodTaint(entry, taint.sinks());
+            }
+            return taint;
+        } finally {
+            if (topLevel) {
+                currentAnalysis.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the other files the cached summaries of the methods in a file were computed from, with the
+     * modification stamps they had. Findings of the file are only valid while these are unchanged.
+     */
+    public Map<VirtualFile, Long> getDependencies(VirtualFile file) {
+        Set<String> signatures = signaturesByFile.get(file);
+        if (signatures == null) {
+            return Map.of();
+        }
+        Map<VirtualFile, Long> result = new HashMap<>();
+        for (String signature : signatures) {
+            Entry entry = summaries.get(signature);
+            if (entry != null && file.equals(entry.file())) {
+                entry.dependencies().forEach(result::putIfAbsent);
+            }
+        }
+        result.remove(file);
+        return result;
+    }
+
+    /**
+     * Complete summaries are always usable; incomplete ones only within the analysis of the cycle they came from.
+     */
+    private boolean isUsable(Entry entry) {
+        return entry.incompleteIn() == 0 || Long.valueOf(entry.incompleteIn()).equals(currentAnalysis.get());
+    }
+
+    private void put(String signature, Entry entry) {
+        summaries.put(signature, entry);
+        for (VirtualFile file : entry.dependencies().keySet()) {
+            dependents.computeIfAbsent(file, key -> ConcurrentHashMap.newKeySet()).add(signature);
+        }
+        signaturesByFile.computeIfAbsent(entry.file(), key -> ConcurrentHashMap.newKeySet()).add(signature);
+    }
+
+    public void invalidate(VirtualFile file) {
+        if (file.isDirectory()) {
+            for (VirtualFile cached : List.copyOf(dependents.keySet())) {
+                if (VfsUtilCore.isAncestor(file, cached, false)) {
+                    evict(dependents.remove(cached));
+                }
+            }
+            signaturesByFile.keySet().removeIf(cached -> VfsUtilCore.isAncestor(file, cached, false));
+        } else {
+            evict(dependents.remove(file));
+            signaturesByFile.remove(file);
+        }
+    }
+
+    /**
+     * Drops the summaries, and the signatures from the dependents of the other files they were computed from.
+     */
+    private void evict(Set<String> signatures) {
+        if (signatures == null) {
+            return;
+        }
+        for (String signature : signatures) {
+            Entry entry = summaries.remove(signature);
+            if (entry == null) {
+                continue;
+            }
+            for (VirtualFile dependency : entry.dependencies().keySet()) {
+                dependents.computeIfPresent(dependency, (key, files) -> {
+                    files.remove(signature);
+                    return files.isEmpty() ? null : files;
+                });
+            }
+        }
+    }
+
+    public void clear() {
+        summaries.clear();
+        dependents.clear();
+        signaturesByFile.clear();
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    /**
+     * Returns a key like {@code com.example.UserRepository#findByName(java.lang.String)}, or null for methods of
+     * local and anonymous classes, which are not cached.
+     */
+    static String signatureOf(PsiMethod method) {
+        PsiClass containingClass = method.getContainingClass();
+        String className = containingClass != null ? containingClass.getQualifiedName() : null;
+        if (className == null) {
+            return null;
+        }
+        StringBuilder signature = new StringBuilder(className).append('#').append(method.getName()).append('(');
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(TypeConversionUtil.erasure(parameters[i].getType()).getCanonicalText());
+        }
+        return signature.append(')').toString();
+    }
+
+    static VirtualFile fileOf(PsiMethod method) {
+        PsiFile psiFile = method.getContainingFile();
+        return psiFile != null ? psiFile.getVirtualFile() : null;
+    }
+
+    /**
+     * A summary with the modification stamps of the files it was computed from.
+     *
+     * @param file         The file of the method, null if it is not backed by a file.
+     * @param summary      The summary.
+     * @param dependencies The stamp of the method's file and of every file of a callee the summary was built from.
+     * @param incompleteIn The top-level analysis a recursive call was cut off in, or 0 for a complete summary.
+     */
+    public record Entry(VirtualFile file, MethodTaintSummary summary, Map<VirtualFile, Long> dependencies,
+                        long incompleteIn) {
+
+        static final Entry UNKNOWN = new Entry(null, MethodTaintSummary.UNKNOWN, Map.of());
+
+        Entry(VirtualFile file, MethodTaintSummary summary, Map<VirtualFile, Long> dependencies) {
+            this(file, summary, dependencies, 0);
+        }
+
+        Entry incompleteIn(long analysis) {
+            return new Entry(file, summary, dependencies, analysis);
+        }
+
+        boolean isUpToDate() {
+            for (Map.Entry<VirtualFile, Long> dependency : dependencies.entrySet()) {
+                VirtualFile file = dependency.getKey();
+                if (!file.isValid() || ScanResultCache.getModificationStamp(file) != dependency.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.safecode.detection.taint;
+
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiMethod;
+
+/**
+ * A sink reached by tainted data in the analyzed method.
+ *
+ * @param expression The tainted sink argument, or the call that passes tainted data on to a callee's sink.
+ * @param sink       The kind of sink.
+ * @param labels     The labels reaching the sink.
+ * @param callee     The method the data flows through to reach the sink, or null for a sink in the method itself.
+ */
+public record TaintedSink(PsiExpression expression, TaintSink sink, long labels, PsiMethod callee) {
+
+    /**
+     * Checks whether request input reaches the sink, as opposed to only the method's parameters.
+     */
+    public boolean isUntrusted() {
+        return (labels & TaintAnalyzer.SOURCE) != 0;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.safecode.enums;
+
+public enum ExportFormat {
+    SARIF(".sarif"),
+    JSON_LINES(".jsonl"),
+    TEXT(".txt");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Picks the format from the extension of an output file name, falling back to plain text.
+     */
+    public static ExportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".sarif") || name.endsWith(".sarif.json")) {
+            return SARIF;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        return TEXT;
+    }
+}
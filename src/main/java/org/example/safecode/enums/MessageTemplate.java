@@ -0,0 +1,24 @@
+package org.example.safecode.enums;
+
+/**
+ * Messages of findings that embed a name from the scanned code. Detectors report the template and its arguments,
+ * which result tables store once per template instead of once per finding; the text is only formatted for display.
+ */
+public enum MessageTemplate {
+    MISSING_SECURITY_ANNOTATIONS("Missing security annotations (e.g., @PreAuthorize, @Secured) in method: %s"),
+    TAINTED_QUERY("SQL built from untrusted input passed to query method '%s'."),
+    TAINTED_QUERY_CALLEE("Request input reaches a SQL query through '%s'."),
+    HARDCODED_SENSITIVE_VARIABLE("Hardcoded sensitive information detected for variable: %s"),
+    HARDCODED_SENSITIVE_ENTRY("Hardcoded sensitive information detected: %s"),
+    HARDCODED_PROPERTY_CREDENTIAL("Hardcoded credential found for key: %s");
+
+    private final String pattern;
+
+    MessageTemplate(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public String format(String... arguments) {
+        return String.format(pattern, (Object[]) arguments);
+    }
+}
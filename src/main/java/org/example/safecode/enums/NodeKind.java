@@ -0,0 +1,18 @@
+package org.example.safecode.enums;
+
+/**
+ * PSI node kinds a rule can subscribe to in the fused single-pass scan.
+ */
+public enum NodeKind {
+    FILE,           // Once per file, before the tree walk (also called for non-Java files)
+    CLASS,
+    METHOD,         // On entering a method, before its body is walked
+    METHOD_EXIT,    // On leaving a method, after its body has been walked
+    METHOD_CALL,
+    ASSIGNMENT,
+    FIELD,
+    LOCAL_VARIABLE,
+    VARIABLE,       // Any variable: fields, locals and parameters
+    ANNOTATION,
+    IMPORT
+}
@@ -0,0 +1,42 @@
+package org.example.safecode.export;
+
+import com.google.gson.stream.JsonWriter;
+import org.example.safecode.models.ScanResult;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes newline-delimited JSON: one self-contained JSON object per finding and line.
+ */
+public class JsonLinesExporter implements ScanResultExporter {
+    private final Writer writer;
+
+    public JsonLinesExporter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void write(ScanResult result) throws IOException {
+        // JsonWriter does not buffer, so a throwaway instance per line writes straight through to the channel
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("filePath").value(result.getFilePath());
+        json.name("lineNumber").value(result.getLineNumber());
+        json.name("type").value(result.getType() != null ? result.getType().name() : null);
+        json.name("severity").value(result.getSeverity() != null ? result.getSeverity().name() : null);
+        json.name("message").value(result.getMessage());
+        json.name("definitionId").value(result.getVulnerabilityDefinition() != null ? result.getVulnerabilityDefinition().getId() : null);
+        json.name("compliance").value(result.isCompliance());
+        if (result.getComplianceType() != null) {
+            json.name("complianceType").value(result.getComplianceType());
+        }
+        json.endObject();
+        writer.write('\n');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
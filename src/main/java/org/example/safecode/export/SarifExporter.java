@@ -0,0 +1,136 @@
+package org.example.safecode.export;
+
+import com.google.gson.stream.JsonWriter;
+import org.example.safecode.enums.VulnerabilitySeverity;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.VulnerabilityDefinition;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a SARIF 2.1.0 log with a single run. The tool description with all rules is written when the exporter
+ * is opened, then every finding is appended to the results array as it arrives; {@link #close()} writes the
+ * closing brackets.
+ */
+public class SarifExporter implements ScanResultExporter {
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String SOURCE_ROOT = "SRCROOT";
+
+    private final JsonWriter json;
+    private final URI baseUri;
+    private final Map<String, Integer> ruleIndexes = new HashMap<>();
+
+    /**
+     * @param writer  The writer of the report file.
+     * @param baseDir The project directory, or null to report absolute file URIs.
+     * @param rules   The vulnerability definitions to list as rules of the tool.
+     */
+    public SarifExporter(Writer writer, String baseDir, Collection<VulnerabilityDefinition> rules) throws IOException {
+        this.json = new JsonWriter(writer);
+        this.baseUri = baseDir != null ? Path.of(baseDir).toUri() : null;
+
+        json.beginObject();
+        json.name("$schema").value(SCHEMA);
+        json.name("version").value("2.1.0");
+        json.name("runs").beginArray();
+        json.beginObject();
+
+        json.name("tool").beginObject();
+        json.name("driver").beginObject();
+        json.name("name").value("SafeCode");
+        json.name("rules").beginArray();
+        for (VulnerabilityDefinition rule : rules) {
+            ruleIndexes.put(rule.getId(), ruleIndexes.size());
+            json.beginObject();
+            json.name("id").value(rule.getId());
+            if (rule.getType() != null) {
+                json.name("name").value(rule.getType().name());
+            }
+            if (rule.getDescription() != null) {
+                json.name("shortDescription").beginObject().name("text").value(rule.getDescription()).endObject();
+            }
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.endObject();
+
+        if (baseUri != null) {
+            json.name("originalUriBaseIds").beginObject();
+            json.name(SOURCE_ROOT).beginObject().name("uri").value(baseUri.toString()).endObject();
+            json.endObject();
+        }
+        json.name("results").beginArray();
+    }
+
+    @Override
+    public synchronized void write(ScanResult result) throws IOException {
+        String ruleId = result.getVulnerabilityDefinition() != null ? result.getVulnerabilityDefinition().getId() : null;
+        json.beginObject();
+        if (ruleId != null) {
+            json.name("ruleId").value(ruleId);
+            Integer ruleIndex = ruleIndexes.get(ruleId);
+            if (ruleIndex != null) {
+                json.name("ruleIndex").value(ruleIndex);
+            }
+        }
+        json.name("level").value(toLevel(result.getSeverity()));
+        json.name("message").beginObject().name("text").value(result.getMessage() != null ? result.getMessage() : "").endObject();
+
+        if (result.getFilePath() != null) {
+            json.name("locations").beginArray().beginObject();
+            json.name("physicalLocation").beginObject();
+            writeArtifactLocation(result.getFilePath());
+            if (result.getLineNumber() > 0) {
+                json.name("region").beginObject().name("startLine").value(result.getLineNumber()).endObject();
+            }
+            json.endObject();
+            json.endObject().endArray();
+        }
+        json.endObject();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        json.endArray(); // results
+        json.endObject(); // run
+        json.endArray(); // runs
+        json.endObject();
+        json.close();
+    }
+
+    private void writeArtifactLocation(String filePath) throws IOException {
+        URI fileUri = Path.of(filePath).toUri();
+        URI relativeUri = baseUri != null ? baseUri.relativize(fileUri) : fileUri;
+        json.name("artifactLocation").beginObject();
+        json.name("uri").value(relativeUri.toString());
+        if (!relativeUri.isAbsolute()) {
+            json.name("uriBaseId").value(SOURCE_ROOT);
+        }
+        json.endObject();
+    }
+
+    private static String toLevel(VulnerabilitySeverity severity) {
+        if (severity == null) {
+            return "warning";
+        }
+        switch (severity) {
+            case CRITICAL_HIPAA:
+            case CRITICAL_PCI_DSS:
+            case CRITICAL_GENERAL:
+            case HIGH:
+                return "error";
+            case LOW:
+            case INFO:
+                return "note";
+            default:
+                return "warning";
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.safecode.export;
+
+import org.example.safecode.enums.ExportFormat;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.VulnerabilityDefinition;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Writes scan results to a report file one at a time, while the scan is still running. Nothing but the
+ * output buffer is held in memory, so reports of any size can be written. Implementations are thread-safe,
+ * so scan workers can write their findings directly.
+ */
+public interface ScanResultExporter extends AutoCloseable {
+    int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Appends a finding to the report.
+     */
+    void write(ScanResult result) throws IOException;
+
+    /**
+     * Completes the report and closes the file.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Opens an exporter that writes the given format to a new file.
+     *
+     * @param outputFile The report file; an existing file is replaced.
+     * @param format     The report format.
+     * @param baseDir    The project directory; file paths below it are reported relative to it.
+     * @param rules      The vulnerability definitions to describe as rules, where the format supports it.
+     */
+    static ScanResultExporter open(Path outputFile, ExportFormat format, String baseDir,
+                                   Collection<VulnerabilityDefinition> rules) throws IOException {
+        Writer writer = openWriter(outputFile);
+        switch (format) {
+            case SARIF:
+                return new SarifExporter(writer, baseDir, rules);
+            case JSON_LINES:
+                return new JsonLinesExporter(writer);
+            default:
+                return new TextExporter(writer);
+        }
+    }
+
+    /**
+     * Opens a UTF-8 writer on a file channel that encodes into a buffer of {@link #BUFFER_SIZE} bytes.
+     */
+    static Writer openWriter(Path outputFile) throws IOException {
+        FileChannel channel = FileChannel.open(outputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.safecode.export;
+
+import org.example.safecode.models.ScanResult;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one line per finding in the {@code path:line: [severity] type: message} form compilers use.
+ */
+public class TextExporter implements ScanResultExporter {
+    private final Writer writer;
+
+    public TextExporter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void write(ScanResult result) throws IOException {
+        writer.write(String.format("%s:%d: [%s] %s: %s%n", result.getFilePath(), result.getLineNumber(),
+                result.getSeverity() != null ? result.getSeverity().getLabel() : "Unknown",
+                result.getType(), result.getMessage()));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
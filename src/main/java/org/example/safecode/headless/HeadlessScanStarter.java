@@ -0,0 +1,185 @@
+package org.example.safecode.headless;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.actions.utils.ChangedFilesUtil;
+import org.example.safecode.actions.utils.FileScannerUtil;
+import org.example.safecode.detection.ParallelScanRunner;
+import org.example.safecode.detection.VulnerabilityDetectionEngine;
+import org.example.safecode.enums.ExportFormat;
+import org.example.safecode.export.ScanResultExporter;
+import org.example.safecode.index.SpringEndpointIndex;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.utils.VulnerabilityDefinitionLoader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Headless entry point for CI pipelines. Opens a project without UI, scans all of its files in parallel and
+ * writes every finding to the output file as soon as its file has been scanned:
+ * <pre>
+ *     idea.sh safecode-scan &lt;project-dir&gt; &lt;output-file&gt; [--format=sarif|jsonl|text] [--base=&lt;git-ref&gt;]
+ * </pre>
+ * Without {@code --format}, the format is picked from the extension of the output file. With {@code --base}, only
+ * the files changed since the given git ref and the files depending on them are scanned.
+ * Exits with {@value #EXIT_CLEAN} if nothing was found, {@value #EXIT_FINDINGS} if there were findings,
+ * {@value #EXIT_ERROR} if the scan could not be run and {@value #EXIT_INCOMPLETE} if it ran but some files failed
+ * to scan or some rules were stopped by their time budget, so findings may be missing.
+ * <p>
+ * Findings are not kept in memory: the scan bypasses the result caches of the IDE.
+ */
+@Slf4j
+public class HeadlessScanStarter implements ApplicationStarter {
+    static final int EXIT_CLEAN = 0;
+    static final int EXIT_FINDINGS = 1;
+    static final int EXIT_ERROR = 2;
+    static final int EXIT_INCOMPLETE = 3;
+
+    private static final String FORMAT_OPTION = "--format=";
+    private static final String BASE_OPTION = "--base=";
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public int getRequiredModality() {
+        // Waiting for indexing and scanning must not block the EDT
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        // The first argument is the command name
+        List<String> positional = new ArrayList<>();
+        ExportFormat format = null;
+        String baseRef = null;
+        for (String arg : args.subList(1, args.size())) {
+            if (arg.startsWith(FORMAT_OPTION)) {
+                format = parseFormat(arg.substring(FORMAT_OPTION.length()));
+                if (format == null) {
+                    exitWithUsage();
+                }
+            } else if (arg.startsWith(BASE_OPTION) && arg.length() > BASE_OPTION.length()) {
+                baseRef = arg.substring(BASE_OPTION.length());
+            } else if (arg.startsWith("--")) {
+                exitWithUsage();
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 2) {
+            exitWithUsage();
+        }
+        Path outputFile = Path.of(positional.get(1)).toAbsolutePath();
+        if (format == null) {
+            format = ExportFormat.fromFileName(outputFile.getFileName().toString());
+        }
+        System.exit(run(Path.of(positional.get(0)).toAbsolutePath(), outputFile, format, baseRef));
+    }
+
+    private static void exitWithUsage() {
+        System.err.println("Usage: safecode-scan <project-dir> <output-file> [--format=sarif|jsonl|text] [--base=<git-ref>]");
+        System.exit(EXIT_ERROR);
+    }
+
+    private static ExportFormat parseFormat(String format) {
+        switch (format) {
+            case "sarif":
+                return ExportFormat.SARIF;
+            case "jsonl":
+                return ExportFormat.JSON_LINES;
+            case "text":
+                return ExportFormat.TEXT;
+            default:
+                return null;
+        }
+    }
+
+    private int run(Path projectDir, Path outputFile, ExportFormat format, String baseRef) {
+        Project project = ProjectUtil.openOrImport(projectDir, null, false);
+        if (project == null) {
+            System.err.println("Could not open project: " + projectDir);
+            return EXIT_ERROR;
+        }
+        try {
+            DumbService.getInstance(project).waitForSmartMode();
+            return scan(project, outputFile, format, baseRef);
+        } catch (Exception e) {
+            log.error("SafeCode scan of {} failed", projectDir, e);
+            System.err.println("SafeCode scan failed: " + e.getMessage());
+            return EXIT_ERROR;
+        } finally {
+            ApplicationManager.getApplication().invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+        }
+    }
+
+    private int scan(Project project, Path outputFile, ExportFormat format, String baseRef) throws IOException, ExecutionException {
+        Set<String> permitAllUrls = DumbService.getInstance(project)
+                .runReadActionInSmartMode(() -> SpringEndpointIndex.getPermitAllPatterns(project));
+        List<VirtualFile> files = baseRef != null
+                ? ChangedFilesUtil.getChangedFilesToScan(project, baseRef)
+                : ReadAction.compute(() -> FileScannerUtil.getFilesToScan(null, project));
+        if (files == null) {
+            System.out.println("No Java or resources files to scan in " + project.getBasePath());
+            return EXIT_CLEAN;
+        }
+
+        System.out.println("Scanning " + files.size() + " files in " + project.getBasePath());
+        VulnerabilityDetectionEngine detectionEngine = new VulnerabilityDetectionEngine(project, permitAllUrls);
+        AtomicInteger findings = new AtomicInteger();
+        AtomicReference<IOException> writeError = new AtomicReference<>();
+        List<VulnerabilityDefinition> rules = new VulnerabilityDefinitionLoader().getAllDefinitions();
+        rules.sort(Comparator.comparing(VulnerabilityDefinition::getId));
+        ParallelScanRunner runner = new ParallelScanRunner(project, detectionEngine, false);
+        try (ScanResultExporter exporter = ScanResultExporter.open(outputFile, format, project.getBasePath(), rules)) {
+            runner.scan(files, new EmptyProgressIndicator(), (file, fileResults) -> {
+                try {
+                    for (ScanResult result : fileResults) {
+                        exporter.write(result);
+                    }
+                } catch (IOException e) {
+                    writeError.compareAndSet(null, e);
+                }
+                findings.addAndGet(fileResults.size());
+            });
+        }
+        if (writeError.get() != null) {
+            throw writeError.get();
+        }
+        System.out.println("Found " + findings.get() + " issues, written to " + outputFile);
+
+        Set<String> failedFiles = runner.getFailedFiles();
+        failedFiles.forEach(file -> System.err.println("Could not scan " + file));
+        Map<String, Integer> trippedRules = detectionEngine.getRuleBudget().getTrippedRules();
+        trippedRules.forEach((rule, overruns) -> System.err.println(
+                "Rule " + rule + " exceeded its time budget " + overruns + " times and was skipped for the rest of the scan"));
+        int incompleteFiles = detectionEngine.getRuleBudget().getIncompleteFileCount();
+        if (!failedFiles.isEmpty() || incompleteFiles > 0) {
+            System.err.println("Scan incomplete: " + failedFiles.size() + " files failed, " + trippedRules.size()
+                    + " rules tripped, " + incompleteFiles + " files scanned without all rules");
+            return EXIT_INCOMPLETE;
+        }
+        return findings.get() == 0 ? EXIT_CLEAN : EXIT_FINDINGS;
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.safecode.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexes the URL patterns of Spring Security {@code permitAll()} matchers and of controller request
+ * mappings across all Java files of the project. The platform keeps the index up to date incrementally,
+ * so scans no longer have to walk the security configuration themselves.
+ * <p>
+ * Keys are URL patterns, values a bit mask of {@link #PERMIT_ALL} and {@link #ENDPOINT}. The indexer only
+ * looks at the syntax of a single file, so annotations and matcher calls are recognised by their short name.
+ */
+public class SpringEndpointIndex extends FileBasedIndexExtension<String, Integer> {
+    public static final ID<String, Integer> NAME = ID.create("org.example.safecode.SpringEndpointIndex");
+
+    public static final int PERMIT_ALL = 1;
+    public static final int ENDPOINT = 2;
+
+    private static final Set<String> MATCHER_METHODS = Set.of("requestMatchers", "antMatchers", "mvcMatchers");
+    private static final Set<String> MAPPING_ANNOTATIONS = Set.of(
+            "RequestMapping", "GetMapping", "PostMapping", "PutMapping", "DeleteMapping", "PatchMapping");
+
+    @Override
+    public @NotNull ID<String, Integer> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> {
+            CharSequence text = inputData.getContentAsText();
+            if (!StringUtil.contains(text, "permitAll") && !StringUtil.contains(text, "Mapping")) {
+                return Map.of();
+            }
+            Map<String, Integer> result = new HashMap<>();
+            inputData.getPsiFile().accept(new JavaRecursiveElementWalkingVisitor() {
+                @Override
+                public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                    super.visitMethodCallExpression(expression);
+                    for (String pattern : getPermitAllPatterns(expression)) {
+                        result.merge(pattern, PERMIT_ALL, (a, b) -> a | b);
+                    }
+                }
+
+                @Override
+                public void visitMethod(@NotNull PsiMethod method) {
+                    super.visitMethod(method);
+                    for (String path : getEndpointPaths(method)) {
+                        result.merge(path, ENDPOINT, (a, b) -> a | b);
+                    }
+                }
+            });
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Returns all URL patterns the project's security configuration opens with {@code permitAll()}.
+     * Must be called in a read action outside of dumb mode.
+     */
+    public static Set<String> getPermitAllPatterns(Project project) {
+        return getKeys(project, PERMIT_ALL);
+    }
+
+    /**
+     * Returns all request mapping paths declared by the project's controllers.
+     * Must be called in a read action outside of dumb mode.
+     */
+    public static Set<String> getEndpointPaths(Project project) {
+        return getKeys(project, ENDPOINT);
+    }
+
+    /**
+     * Returns the project files that declare entries of the given kind, e.g. all controllers for {@link #ENDPOINT}.
+     * Must be called in a read action outside of dumb mode.
+     */
+    public static Set<VirtualFile> getFiles(Project project, int kind) {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Set<VirtualFile> files = new HashSet<>();
+        for (String key : index.getAllKeys(NAME, project)) {
+            index.processValues(NAME, key, null, (file, kinds) -> {
+                if ((kinds & kind) != 0) {
+                    files.add(file);
+                }
+                return true;
+            }, scope);
+        }
+        return files;
+    }
+
+    /**
+     * Checks whether the given file declares entries of the given kind, e.g. permitAll matchers.
+     * Must be called in a read action outside of dumb mode.
+     */
+    public static boolean declares(Project project, VirtualFile file, int kind) {
+        for (Integer kinds : FileBasedIndex.getInstance().getFileData(NAME, file, project).values()) {
+            if ((kinds & kind) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> getKeys(Project project, int kind) {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Set<String> keys = new HashSet<>();
+        for (String key : index.getAllKeys(NAME, project)) {
+            // getAllKeys may still report keys of deleted files, so confirm with the actual values
+            for (Integer kinds : index.getValues(NAME, key, scope)) {
+                if ((kinds & kind) != 0) {
+                    keys.add(key);
+                    break;
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the patterns of a {@code requestMatchers("/a", "/b").permitAll()} style call, or an empty list
+     * if the expression is not a {@code permitAll()} call.
+     */
+    static List<String> getPermitAllPatterns(PsiMethodCallExpression expression) {
+        if (!"permitAll".equals(expression.getMethodExpression().getReferenceName())) {
+            return List.of();
+        }
+        PsiExpression qualifier = expression.getMethodExpression().getQualifierExpression();
+        if (!(qualifier instanceof PsiMethodCallExpression matcherCall)
+                || !MATCHER_METHODS.contains(matcherCall.getMethodExpression().getReferenceName())) {
+            return List.of();
+        }
+        List<String> patterns = new ArrayList<>();
+        for (PsiExpression argument : matcherCall.getArgumentList().getExpressions()) {
+            if (argument instanceof PsiLiteralExpression literal && literal.getValue() instanceof String value) {
+                patterns.add(value.trim());
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Returns the full request paths a controller method is mapped to, combining the class-level
+     * {@code @RequestMapping} prefix with the method-level mapping.
+     */
+    public static List<String> getEndpointPaths(PsiMethod method) {
+        List<String> methodPaths = getMappingPaths(method.getModifierList());
+        if (methodPaths.isEmpty()) {
+            return List.of();
+        }
+        PsiClass containingClass = method.getContainingClass();
+        List<String> classPaths = containingClass != null ? getMappingPaths(containingClass.getModifierList()) : List.of();
+        if (classPaths.isEmpty()) {
+            return methodPaths;
+        }
+        List<String> paths = new ArrayList<>();
+        for (String classPath : classPaths) {
+            for (String methodPath : methodPaths) {
+                paths.add(joinPaths(classPath, methodPath));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the paths of the mapping annotations on the given modifier list. A mapping without a path
+     * maps to the empty string.
+     */
+    public static List<String> getMappingPaths(PsiModifierList modifierList) {
+        if (modifierList == null) {
+            return List.of();
+        }
+        List<String> paths = new ArrayList<>();
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+            if (reference == null || !MAPPING_ANNOTATIONS.contains(reference.getReferenceName())) {
+                continue;
+            }
+            List<String> annotationPaths = new ArrayList<>();
+            addLiteralValues(annotation.findDeclaredAttributeValue("value"), annotationPaths);
+            addLiteralValues(annotation.findDeclaredAttributeValue("path"), annotationPaths);
+            paths.addAll(annotationPaths.isEmpty() ? List.of("") : annotationPaths);
+        }
+        return paths;
+    }
+
+    private static void addLiteralValues(PsiAnnotationMemberValue value, List<String> paths) {
+        if (value instanceof PsiArrayInitializerMemberValue array) {
+            for (PsiAnnotationMemberValue initializer : array.getInitializers()) {
+                addLiteralValues(initializer, paths);
+            }
+        } else if (value instanceof PsiLiteralExpression literal && literal.getValue() instanceof String path) {
+            paths.add(path.trim());
+        }
+    }
+
+    private static String joinPaths(String prefix, String path) {
+        if (prefix.isEmpty()) {
+            return path;
+        }
+        if (path.isEmpty()) {
+            return prefix;
+        }
+        boolean prefixSlash = prefix.endsWith("/");
+        boolean pathSlash = path.startsWith("/");
+        if (prefixSlash && pathSlash) {
+            return prefix + path.substring(1);
+        }
+        return prefixSlash || pathSlash ? prefix + path : prefix + "/" + path;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.broken_access_control.BrokenAccessControlRule;
+
+/**
+ * Highlights endpoints without access control, see {@link BrokenAccessControlRule}.
+ */
+public class BrokenAccessControlInspection extends SafeCodeInspection {
+    public BrokenAccessControlInspection() {
+        super(new BrokenAccessControlRule());
+    }
+}
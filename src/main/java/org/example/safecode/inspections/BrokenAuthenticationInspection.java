@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.broken_authentication.BrokenAuthenticationRule;
+
+/**
+ * Highlights weak password handling, see {@link BrokenAuthenticationRule}.
+ */
+public class BrokenAuthenticationInspection extends SafeCodeInspection {
+    public BrokenAuthenticationInspection() {
+        super(new BrokenAuthenticationRule());
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.sql_injection.InjectionRule;
+
+/**
+ * Highlights SQL queries built from method parameters or request input, which the taint analysis follows
+ * into the query, see {@link InjectionRule}.
+ */
+public class InjectionInspection extends SafeCodeInspection {
+    public InjectionInspection() {
+        super(new InjectionRule());
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.insecure_deserialization.InsecureDeserializationRule;
+
+/**
+ * Highlights deserialization of untrusted data, see {@link InsecureDeserializationRule}.
+ */
+public class InsecureDeserializationInspection extends SafeCodeInspection {
+    public InsecureDeserializationInspection() {
+        super(new InsecureDeserializationRule());
+    }
+}
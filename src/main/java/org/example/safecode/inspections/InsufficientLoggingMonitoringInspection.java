@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.insuffient_loggin.InsufficientLoggingMonitoringRule;
+
+/**
+ * Highlights sensitive operations that are not logged, see {@link InsufficientLoggingMonitoringRule}.
+ */
+public class InsufficientLoggingMonitoringInspection extends SafeCodeInspection {
+    public InsufficientLoggingMonitoringInspection() {
+        super(new InsufficientLoggingMonitoringRule());
+    }
+}
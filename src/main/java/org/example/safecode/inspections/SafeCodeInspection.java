@@ -0,0 +1,99 @@
+package org.example.safecode.inspections;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.example.safecode.actions.utils.FileScannerUtil;
+import org.example.safecode.detection.FusedVisitorEngine;
+import org.example.safecode.detection.ScanContext;
+import org.example.safecode.detection.rules.BaseRule;
+import org.example.safecode.index.SpringEndpointIndex;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.utils.LineOffsetIndex;
+import org.example.safecode.utils.PermitAllPatterns;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exposes a detection rule as an on-the-fly inspection, so the daemon highlights its findings in the editor
+ * while the user types. The rule runs through the same fused visitor engine as a manual scan, once per file
+ * pass of the daemon, and every finding is registered on the element it was reported for. Findings reported
+ * against the whole file, e.g. by rules reading .properties files, are highlighted on their line.
+ * <p>
+ * Subclasses only pick the rule; they need a public no-arg constructor to be registered in plugin.xml.
+ */
+public abstract class SafeCodeInspection extends LocalInspectionTool {
+    private final FusedVisitorEngine engine;
+
+    protected SafeCodeInspection(BaseRule rule) {
+        this.engine = new FusedVisitorEngine(List.of(rule));
+    }
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        return new PsiElementVisitor() {
+            @Override
+            public void visitFile(@NotNull PsiFile file) {
+                if (file.getVirtualFile() == null || !FileScannerUtil.isScannable(file.getVirtualFile())) {
+                    return;
+                }
+                engine.scan(file, new InspectionContext(file, getPermitAllPatterns(file.getProject()), holder));
+            }
+        };
+    }
+
+    /**
+     * Returns the project's permitAll URL patterns, compiled once until the next PSI change.
+     */
+    private static PermitAllPatterns getPermitAllPatterns(Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+                new PermitAllPatterns(SpringEndpointIndex.getPermitAllPatterns(project)),
+                PsiModificationTracker.getInstance(project)));
+    }
+
+    /**
+     * Turns reported findings into problem descriptors instead of collecting them.
+     */
+    private static final class InspectionContext extends ScanContext {
+        private final ProblemsHolder holder;
+        // Rules may report the same finding from several callbacks, as in VulnerabilityDetectionEngine
+        private final Set<String> reported = new HashSet<>();
+
+        InspectionContext(PsiFile psiFile, PermitAllPatterns permitAllPatterns, ProblemsHolder holder) {
+            super(psiFile, permitAllPatterns);
+            this.holder = holder;
+        }
+
+        @Override
+        public void report(PsiElement element, ScanResult result) {
+            String definitionId = result.getVulnerabilityDefinition() != null ? result.getVulnerabilityDefinition().getId() : null;
+            if (!reported.add(result.getLineNumber() + "_" + result.getType() + "_" + definitionId)) {
+                return;
+            }
+            String message = result.getMessage() != null ? result.getMessage() : String.valueOf(result.getType());
+            PsiElement anchor = element instanceof PsiNameIdentifierOwner owner && owner.getNameIdentifier() != null
+                    ? owner.getNameIdentifier()
+                    : element;
+            if (anchor != null && !(anchor instanceof PsiFile) && anchor.getContainingFile() == getPsiFile()
+                    && anchor.getTextLength() > 0) {
+                holder.registerProblem(anchor, message);
+                return;
+            }
+            TextRange line = LineOffsetIndex.of(getPsiFile()).getLineRange(result.getLineNumber());
+            if (line != null && !line.isEmpty()) {
+                holder.registerProblem(getPsiFile(), line, message);
+            }
+        }
+    }
+}
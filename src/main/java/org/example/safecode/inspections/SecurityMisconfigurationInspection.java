@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.security_miconfiguration.SecurityMisconfigurationRule;
+
+/**
+ * Highlights insecure configuration in Java, .properties and YAML files, see {@link SecurityMisconfigurationRule}.
+ */
+public class SecurityMisconfigurationInspection extends SafeCodeInspection {
+    public SecurityMisconfigurationInspection() {
+        super(new SecurityMisconfigurationRule());
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.sensitive_data_exposure.SensitiveDataExposureRule;
+
+/**
+ * Highlights hardcoded or logged secrets in Java, .properties and YAML files, see {@link SensitiveDataExposureRule}.
+ */
+public class SensitiveDataExposureInspection extends SafeCodeInspection {
+    public SensitiveDataExposureInspection() {
+        super(new SensitiveDataExposureRule());
+    }
+}
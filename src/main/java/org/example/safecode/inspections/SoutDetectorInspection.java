@@ -0,0 +1,12 @@
+package org.example.safecode.inspections;
+
+import org.example.safecode.detection.rules.SoutDetectorRule;
+
+/**
+ * Highlights {@code System.out.println} calls.
+ */
+public class SoutDetectorInspection extends SafeCodeInspection {
+    public SoutDetectorInspection() {
+        super(new SoutDetectorRule());
+    }
+}
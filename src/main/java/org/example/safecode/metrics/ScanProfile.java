@@ -0,0 +1,34 @@
+package org.example.safecode.metrics;
+
+import java.util.List;
+
+/**
+ * Snapshot of a {@link ScanProfiler} for display. Times are in nanoseconds, percentiles are upper bounds
+ * from {@link LogHistogram}.
+ *
+ * @param fileCount      The number of files that were actually scanned; cached files are not included.
+ * @param wallNanos      Wall time per file.
+ * @param cpuNanos       CPU time per file, all zero if the JVM does not measure thread CPU time.
+ * @param allocatedBytes Bytes allocated per file, all zero if the JVM does not measure thread allocations.
+ * @param visitedNodes   PSI nodes visited by the fused walk per file.
+ * @param findings       Findings per file.
+ * @param rules          The rules, most expensive first.
+ * @param slowestFiles   The slowest files, slowest first.
+ */
+public record ScanProfile(long fileCount, Distribution wallNanos, Distribution cpuNanos, Distribution allocatedBytes,
+                          Distribution visitedNodes, Distribution findings, List<RuleProfile> rules,
+                          List<ScanProfiler.FileSample> slowestFiles) {
+
+    /**
+     * Summary of a per-file histogram.
+     */
+    public record Distribution(long total, long mean, long p50, long p95, long max) {
+    }
+
+    /**
+     * Time spent in a rule's callbacks, with mean and percentiles over the files the rule did any work on.
+     */
+    public record RuleProfile(String name, long totalNanos, long meanNanos, long p95Nanos, long maxNanos,
+                              long findings) {
+    }
+}
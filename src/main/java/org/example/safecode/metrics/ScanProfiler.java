@@ -0,0 +1,205 @@
+package org.example.safecode.metrics;
+
+import org.example.safecode.detection.rules.BaseRule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the cost of a scan session: wall time, CPU time, allocated bytes, visited PSI nodes and findings per
+ * file, and wall time and findings per rule. Files are measured by a {@link FileProbe} on the worker thread that
+ * scans them and merged into shared histograms when done, so the workers never contend while a file is scanned.
+ * <p>
+ * CPU time and allocations come from the JVM's per-thread counters and are only taken per file; timing every
+ * rule callback with them would cost more than most callbacks do.
+ */
+public final class ScanProfiler {
+    private static final int TOP_FILES = 20;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final List<BaseRule> rules;
+    private final Map<BaseRule, Integer> ruleIndexes = new IdentityHashMap<>();
+    private final boolean cpuTimeSupported;
+    private final boolean allocationSupported;
+
+    private final LogHistogram wallNanos = new LogHistogram();
+    private final LogHistogram cpuNanos = new LogHistogram();
+    private final LogHistogram allocatedBytes = new LogHistogram();
+    private final LogHistogram visitedNodes = new LogHistogram();
+    private final LogHistogram findings = new LogHistogram();
+    private final LogHistogram[] ruleNanos;
+    private final AtomicLongArray ruleFindings;
+    private final PriorityQueue<FileSample> slowestFiles = new PriorityQueue<>(Comparator.comparingLong(FileSample::wallNanos));
+
+    /**
+     * @param rules The rules of the scan session in registration order, followed by the compliance rules.
+     */
+    public ScanProfiler(List<BaseRule> rules) {
+        this.rules = List.copyOf(rules);
+        for (int i = 0; i < this.rules.size(); i++) {
+            ruleIndexes.put(this.rules.get(i), i);
+        }
+        this.cpuTimeSupported = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        this.allocationSupported = THREADS instanceof com.sun.management.ThreadMXBean allocations
+                && allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled();
+        this.ruleNanos = new LogHistogram[this.rules.size()];
+        for (int i = 0; i < ruleNanos.length; i++) {
+            ruleNanos[i] = new LogHistogram();
+        }
+        this.ruleFindings = new AtomicLongArray(this.rules.size());
+    }
+
+    /**
+     * Starts measuring a file on the current thread. The probe must be finished on the same thread.
+     */
+    public FileProbe startFile(String filePath) {
+        return new FileProbe(filePath);
+    }
+
+    /**
+     * Takes a consistent-enough copy of the numbers collected so far for display.
+     */
+    public ScanProfile snapshot() {
+        List<ScanProfile.RuleProfile> ruleProfiles = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            LogHistogram histogram = ruleNanos[i];
+            ruleProfiles.add(new ScanProfile.RuleProfile(rules.get(i).getClass().getSimpleName(), histogram.getSum(),
+                    histogram.getMean(), histogram.getPercentile(0.95), histogram.getMax(), ruleFindings.get(i)));
+        }
+        ruleProfiles.sort(Comparator.comparingLong(ScanProfile.RuleProfile::totalNanos).reversed());
+
+        List<FileSample> files;
+        synchronized (slowestFiles) {
+            files = new ArrayList<>(slowestFiles);
+        }
+        files.sort(Comparator.comparingLong(FileSample::wallNanos).reversed());
+
+        return new ScanProfile(wallNanos.getCount(), summarize(wallNanos), summarize(cpuNanos), summarize(allocatedBytes),
+                summarize(visitedNodes), summarize(findings), ruleProfiles, files);
+    }
+
+    private static ScanProfile.Distribution summarize(LogHistogram histogram) {
+        return new ScanProfile.Distribution(histogram.getSum(), histogram.getMean(), histogram.getPercentile(0.5),
+                histogram.getPercentile(0.95), histogram.getMax());
+    }
+
+    private void record(FileSample sample, long[] perRuleNanos, int[] perRuleFindings) {
+        wallNanos.record(sample.wallNanos());
+        if (cpuTimeSupported) {
+            cpuNanos.record(sample.cpuNanos());
+        }
+        if (allocationSupported) {
+            allocatedBytes.record(sample.allocatedBytes());
+        }
+        visitedNodes.record(sample.visitedNodes());
+        findings.record(sample.findings());
+        for (int i = 0; i < perRuleNanos.length; i++) {
+            if (perRuleNanos[i] > 0) {
+                ruleNanos[i].record(perRuleNanos[i]);
+            }
+            if (perRuleFindings[i] > 0) {
+                ruleFindings.addAndGet(i, perRuleFindings[i]);
+            }
+        }
+        synchronized (slowestFiles) {
+            if (slowestFiles.size() < TOP_FILES) {
+                slowestFiles.add(sample);
+            } else if (slowestFiles.peek().wallNanos() < sample.wallNanos()) {
+                slowestFiles.poll();
+                slowestFiles.add(sample);
+            }
+        }
+    }
+
+    private long currentCpuNanos() {
+        return cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private long currentAllocatedBytes() {
+        return allocationSupported
+                ? ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId())
+                : 0;
+    }
+
+    /**
+     * The measured cost of one scanned file.
+     */
+    public record FileSample(String filePath, long wallNanos, long cpuNanos, long allocatedBytes, int visitedNodes,
+                             int findings) {
+    }
+
+    /**
+     * Measures one file on the thread scanning it. Not thread-safe.
+     */
+    public final class FileProbe {
+        private final String filePath;
+        private final long startNanos = System.nanoTime();
+        private final long startCpuNanos = currentCpuNanos();
+        private final long startAllocatedBytes = currentAllocatedBytes();
+        private final long[] perRuleNanos = new long[rules.size()];
+        private final int[] perRuleFindings = new int[rules.size()];
+        private int currentRule = -1;
+        private int visitedNodes;
+
+        private FileProbe(String filePath) {
+            this.filePath = filePath;
+        }
+
+        /**
+         * Marks the start of a rule callback; findings reported until {@link #ruleFinished} count towards the rule.
+         */
+        public void ruleStarted(BaseRule rule) {
+            Integer index = ruleIndexes.get(rule);
+            currentRule = index != null ? index : -1;
+        }
+
+        public void ruleFinished(long elapsedNanos) {
+            if (currentRule >= 0) {
+                perRuleNanos[currentRule] += elapsedNanos;
+            }
+            currentRule = -1;
+        }
+
+        /**
+         * Counts a finding towards the file and towards the rule whose callback is running, if any.
+         */
+        public void findingReported() {
+            if (currentRule >= 0) {
+                perRuleFindings[currentRule]++;
+            }
+        }
+
+        public void nodeVisited() {
+            visitedNodes++;
+        }
+
+        /**
+         * Forgets the nodes and findings counted by an aborted attempt before the file is scanned again. The
+         * time the rules spent on it stays counted, since the scan did pay for it.
+         */
+        public void discardAttempt() {
+            Arrays.fill(perRuleFindings, 0);
+            visitedNodes = 0;
+        }
+
+        /**
+         * Stops measuring and merges the file into the profile.
+         *
+         * @param findings The findings the file ended up with after deduplication.
+         */
+        public void finish(int findings) {
+            long wall = System.nanoTime() - startNanos;
+            long cpu = currentCpuNanos() - startCpuNanos;
+            long allocated = currentAllocatedBytes() - startAllocatedBytes;
+            record(new FileSample(filePath, wall, cpu, allocated, visitedNodes, findings), perRuleNanos, perRuleFindings);
+        }
+    }
+}
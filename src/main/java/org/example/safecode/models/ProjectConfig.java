@@ -1,12 +1,17 @@
 package org.example.safecode.models;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class ProjectConfig {
     private String projectType; // E.g., "healthcare", "finance"
     private List<String> compliance; // E.g., ["HIPAA", "PCI-DSS"]
     private Map<String, Object> customSettings; // E.g., {"encryptionLevel": "AES-256", "enableRBAC": true}
+    private transient boolean frozen; // Set on snapshots; transient so Gson neither reads nor writes it
 
     // Getters and Setters
     public String getProjectType() {
@@ -14,6 +19,7 @@ public class ProjectConfig {
     }
 
     public void setProjectType(String projectType) {
+        checkNotFrozen();
         this.projectType = projectType;
     }
 
@@ -22,6 +28,7 @@ public class ProjectConfig {
     }
 
     public void setCompliance(List<String> complianceRequirements) {
+        checkNotFrozen();
         this.compliance = complianceRequirements;
     }
 
@@ -30,9 +37,48 @@ public class ProjectConfig {
     }
 
     public void setCustomSettings(Map<String, Object> customSettings) {
+        checkNotFrozen();
         this.customSettings = customSettings;
     }
 
+    /**
+     * Returns a read-only copy, safe to share between scan threads: its collections cannot be modified and its
+     * setters throw {@link UnsupportedOperationException}.
+     */
+    public ProjectConfig snapshot() {
+        ProjectConfig copy = new ProjectConfig();
+        copy.projectType = projectType;
+        copy.compliance = compliance != null
+                ? Collections.unmodifiableList(new ArrayList<>(compliance))
+                : Collections.emptyList();
+        copy.customSettings = customSettings != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(customSettings))
+                : Collections.emptyMap();
+        copy.frozen = true;
+        return copy;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("ProjectConfig snapshots are read-only");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProjectConfig)) return false;
+        ProjectConfig that = (ProjectConfig) o;
+        return Objects.equals(projectType, that.projectType)
+                && Objects.equals(compliance, that.compliance)
+                && Objects.equals(customSettings, that.customSettings);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(projectType, compliance, customSettings);
+    }
+
     @Override
     public String toString() {
         return "ProjectConfig{" +
@@ -1,6 +1,7 @@
 package org.example.safecode.models;
 
 import lombok.*;
+import org.example.safecode.enums.MessageTemplate;
 import org.example.safecode.enums.VulnerabilitySeverity;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.performance.PerformanceImpact;
@@ -16,6 +17,9 @@ import java.util.UUID;
 public class ScanResult {
 //    private String uuid = UUID.randomUUID().toString();
     private  String message;
+    // Set instead of message by detectors whose message embeds names from the code, see getMessage()
+    private MessageTemplate messageTemplate;
+    private String[] messageArguments;
     private  int lineNumber;
     private  VulnerabilityType type; // Type of the issue
     private  boolean isCompliance;
@@ -28,8 +32,38 @@ public class ScanResult {
     private String codeFragment;
     private VulnerabilitySeverity severity = VulnerabilitySeverity.MEDIUM;
 
+    /**
+     * Returns the message, formatting it from the template and its arguments if the detector reported one.
+     */
+    public String getMessage() {
+        if (message == null && messageTemplate != null) {
+            return messageTemplate.format(messageArguments != null ? messageArguments : new String[0]);
+        }
+        return message;
+    }
+
+    /**
+     * Replaces the message, including a templated one.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+        this.messageTemplate = null;
+        this.messageArguments = null;
+    }
+
     @Override
     public String toString() {
-        return String.format("%s (Line: %d)", message, lineNumber);
+        return String.format("%s (Line: %d)", getMessage(), lineNumber);
+    }
+
+    public static class ScanResultBuilder {
+        /**
+         * Sets a templated message, formatted only when it is displayed.
+         */
+        public ScanResultBuilder message(MessageTemplate template, String... arguments) {
+            this.messageTemplate = template;
+            this.messageArguments = arguments;
+            return this;
+        }
     }
 }
@@ -0,0 +1,227 @@
+package org.example.safecode.models;
+
+import org.example.safecode.enums.MessageTemplate;
+import org.example.safecode.enums.VulnerabilitySeverity;
+import org.example.safecode.enums.VulnerabilityType;
+import org.example.safecode.performance.PerformanceImpactTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, column-oriented store for the results of a scan, used to keep large result sets in the tool window.
+ * Each result takes a handful of ints: file paths, compliance types, descriptions and fixed messages are interned,
+ * templated messages keep the {@link MessageTemplate} the detector reported and only its arguments, vulnerability
+ * definitions are referenced by ordinal and equal recommendation lists are shared. Templated messages are only
+ * formatted for display. Performance
+ * impacts are not stored at all but looked up from the {@link PerformanceImpactTable}.
+ * <p>
+ * Rows are grouped by file. A {@link ScanResult} bean is only created by {@link #toScanResult(int)}, when the
+ * UI needs one. Not thread-safe; fill it in the background and only use it on the EDT afterwards.
+ */
+public final class ScanResultTable {
+    private static final int NONE = -1;
+    private static final MessageTemplate[] TEMPLATES = MessageTemplate.values();
+
+    private final Pool<String> strings = new Pool<>();
+    private final Pool<VulnerabilityDefinition> definitions = new Pool<>();
+    private final Pool<List<String>> recommendationLists = new Pool<>();
+
+    private final List<String> groups = new ArrayList<>();
+    private final int[] groupStarts;
+
+    private final int[] filePathIds;
+    // Template ordinal, or NONE for a fixed message interned in messageIds
+    private final int[] templateOrdinals;
+    private final int[] messageIds;
+    private final String[][] arguments;
+    private final int[] definitionOrdinals;
+    private final int[] recommendationIds;
+    private final int[] lineNumbers;
+    // Type ordinal + 1 in bits 0-7, severity ordinal + 1 in bits 8-15 (0 stands for null), compliance flag in bit 16
+    private final int[] attributes;
+    private final int[] complianceTypeIds;
+    private final int[] descriptionIds;
+    private final String[] codeFragments;
+
+    private ScanResultTable(int fileCount, int resultCount) {
+        groupStarts = new int[fileCount + 1];
+        filePathIds = new int[resultCount];
+        templateOrdinals = new int[resultCount];
+        messageIds = new int[resultCount];
+        arguments = new String[resultCount][];
+        definitionOrdinals = new int[resultCount];
+        recommendationIds = new int[resultCount];
+        lineNumbers = new int[resultCount];
+        attributes = new int[resultCount];
+        complianceTypeIds = new int[resultCount];
+        descriptionIds = new int[resultCount];
+        codeFragments = new String[resultCount];
+    }
+
+    /**
+     * Copies the results of a scan into a new table; the beans can be dropped afterwards.
+     *
+     * @param resultsByFile The scan results grouped by file path.
+     */
+    public static ScanResultTable of(Map<String, List<ScanResult>> resultsByFile) {
+        int resultCount = 0;
+        for (List<ScanResult> fileResults : resultsByFile.values()) {
+            resultCount += fileResults.size();
+        }
+        ScanResultTable table = new ScanResultTable(resultsByFile.size(), resultCount);
+        int row = 0;
+        for (Map.Entry<String, List<ScanResult>> entry : resultsByFile.entrySet()) {
+            table.groupStarts[table.groups.size()] = row;
+            table.groups.add(entry.getKey());
+            for (ScanResult result : entry.getValue()) {
+                table.set(row++, result);
+            }
+        }
+        table.groupStarts[table.groups.size()] = row;
+        return table;
+    }
+
+    public int getFileCount() {
+        return groups.size();
+    }
+
+    public String getFile(int fileIndex) {
+        return groups.get(fileIndex);
+    }
+
+    /**
+     * Returns the first row of the file's results; the rows of a file are contiguous.
+     */
+    public int getFileStart(int fileIndex) {
+        return groupStarts[fileIndex];
+    }
+
+    /**
+     * Returns the row after the last result of the file.
+     */
+    public int getFileEnd(int fileIndex) {
+        return groupStarts[fileIndex + 1];
+    }
+
+    public int getResultCount() {
+        return lineNumbers.length;
+    }
+
+    public String getMessage(int row) {
+        MessageTemplate template = getMessageTemplate(row);
+        return template != null ? template.format(arguments[row]) : strings.get(messageIds[row]);
+    }
+
+    private MessageTemplate getMessageTemplate(int row) {
+        return templateOrdinals[row] == NONE ? null : TEMPLATES[templateOrdinals[row]];
+    }
+
+    public int getLineNumber(int row) {
+        return lineNumbers[row];
+    }
+
+    public VulnerabilitySeverity getSeverity(int row) {
+        int severity = (attributes[row] >>> 8) & 0xFF;
+        return severity == 0 ? null : VulnerabilitySeverity.values()[severity - 1];
+    }
+
+    public VulnerabilityDefinition getVulnerabilityDefinition(int row) {
+        return definitions.get(definitionOrdinals[row]);
+    }
+
+    public String getCodeFragment(int row) {
+        return codeFragments[row];
+    }
+
+    /**
+     * Replaces the recommendations of a result, sharing the list with all results that got an equal one.
+     */
+    public void setRecommendations(int row, List<String> recommendations) {
+        recommendationIds[row] = recommendationLists.intern(recommendations == null ? null : Collections.unmodifiableList(new ArrayList<>(recommendations)));
+    }
+
+    /**
+     * Creates a {@link ScanResult} bean with the data of a row.
+     */
+    public ScanResult toScanResult(int row) {
+        int type = attributes[row] & 0xFF;
+        VulnerabilityDefinition definition = getVulnerabilityDefinition(row);
+        return ScanResult.builder()
+                .message(strings.get(messageIds[row]))
+                .messageTemplate(getMessageTemplate(row))
+                .messageArguments(arguments[row])
+                .lineNumber(lineNumbers[row])
+                .type(type == 0 ? null : VulnerabilityType.values()[type - 1])
+                .isCompliance((attributes[row] & (1 << 16)) != 0)
+                .complianceType(strings.get(complianceTypeIds[row]))
+                .description(strings.get(descriptionIds[row]))
+                .recommendations(recommendationLists.get(recommendationIds[row]))
+                .filePath(strings.get(filePathIds[row]))
+                .performanceImpact(definition != null ? PerformanceImpactTable.getInstance().getImpacts(definition.getId()) : null)
+                .vulnerabilityDefinition(definition)
+                .codeFragment(codeFragments[row])
+                .severity(getSeverity(row))
+                .build();
+    }
+
+    private void set(int row, ScanResult result) {
+        if (result.getMessageTemplate() != null) {
+            templateOrdinals[row] = result.getMessageTemplate().ordinal();
+            messageIds[row] = NONE;
+            arguments[row] = result.getMessageArguments();
+        } else {
+            templateOrdinals[row] = NONE;
+            messageIds[row] = strings.intern(result.getMessage());
+        }
+        filePathIds[row] = strings.intern(result.getFilePath());
+        definitionOrdinals[row] = definitions.intern(result.getVulnerabilityDefinition());
+        setRecommendations(row, result.getRecommendations());
+        lineNumbers[row] = result.getLineNumber();
+        attributes[row] = (result.getType() == null ? 0 : result.getType().ordinal() + 1)
+                | (result.getSeverity() == null ? 0 : result.getSeverity().ordinal() + 1) << 8
+                | (result.isCompliance() ? 1 << 16 : 0);
+        complianceTypeIds[row] = strings.intern(result.getComplianceType());
+        descriptionIds[row] = strings.intern(result.getDescription());
+        codeFragments[row] = result.getCodeFragment();
+    }
+
+    /**
+     * A handle on one row, used as the user object of the result tree nodes.
+     */
+    public record Row(ScanResultTable table, int index) {
+        public ScanResult toScanResult() {
+            return table.toScanResult(index);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (Line: %d)", table.getMessage(index), table.getLineNumber(index));
+        }
+    }
+
+    /**
+     * Assigns dense IDs to distinct values; null is kept as {@link #NONE}.
+     */
+    private static final class Pool<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int intern(T value) {
+            if (value == null) {
+                return NONE;
+            }
+            return ids.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        T get(int id) {
+            return id == NONE ? null : values.get(id);
+        }
+    }
+}
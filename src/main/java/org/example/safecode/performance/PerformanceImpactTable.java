@@ -0,0 +1,69 @@
+package org.example.safecode.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.utils.PerformanceImpactsLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable table of the performance impacts per vulnerability definition, built once from
+ * performance-impacts.json. Definitions are numbered with compact ordinals and the impacts are kept in a
+ * dense array, so every scan result of a definition shares the same unmodifiable list.
+ */
+@Slf4j
+public final class PerformanceImpactTable {
+    private static final PerformanceImpactTable INSTANCE = new PerformanceImpactTable(PerformanceImpactsLoader.getAllPerformanceImpacts());
+
+    private final Map<String, Integer> ordinals;
+    private final List<PerformanceImpact>[] impacts;
+
+    @SuppressWarnings("unchecked")
+    private PerformanceImpactTable(Map<String, PerformanceImpactsWrapper> wrappers) {
+        List<String> ids = new ArrayList<>(wrappers.keySet());
+        Collections.sort(ids);
+
+        Map<String, Integer> ordinalsById = new HashMap<>();
+        this.impacts = new List[ids.size()];
+        for (int ordinal = 0; ordinal < ids.size(); ordinal++) {
+            String id = ids.get(ordinal);
+            List<PerformanceImpact> options = wrappers.get(id).getPerformanceImpactOptions();
+            ordinalsById.put(id, ordinal);
+            impacts[ordinal] = options != null ? List.copyOf(options) : List.of();
+        }
+        this.ordinals = Map.copyOf(ordinalsById);
+        log.info("Class: {}, Method: {} - Indexed performance impacts of {} definitions.",
+                PerformanceImpactTable.class.getSimpleName(), "PerformanceImpactTable", impacts.length);
+    }
+
+    public static PerformanceImpactTable getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the ordinal of a vulnerability definition, or -1 if no performance impacts are known for it.
+     */
+    public int ordinalOf(String definitionId) {
+        Integer ordinal = definitionId != null ? ordinals.get(definitionId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Returns the shared, unmodifiable performance impacts of the definition with the given ordinal,
+     * or an empty list for -1.
+     */
+    public List<PerformanceImpact> getImpacts(int ordinal) {
+        return ordinal >= 0 ? impacts[ordinal] : List.of();
+    }
+
+    /**
+     * Returns the shared, unmodifiable performance impacts of a vulnerability definition, or an empty list
+     * if none are known for it.
+     */
+    public List<PerformanceImpact> getImpacts(String definitionId) {
+        return getImpacts(ordinalOf(definitionId));
+    }
+}
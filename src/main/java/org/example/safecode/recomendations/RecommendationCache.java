@@ -0,0 +1,165 @@
+package org.example.safecode.recomendations;
+
+import com.google.gson.Gson;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.extensions.PluginId;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.VulnerabilityDefinition;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two-level cache of the recommendations returned by the recommendation service. The first level is an
+ * in-memory LRU, the second a JSON file under the IDE system directory that survives restarts. Entries are
+ * keyed by vulnerability definition ID, which is what the service answers per, expire after {@link #TTL} in
+ * both levels, and are dropped entirely when the plugin version changes.
+ * <p>
+ * Expired entries are kept on disk so they can stand in for the service while it is unreachable.
+ */
+@Slf4j
+@Service(Service.Level.APP)
+public final class RecommendationCache {
+    static final Duration TTL = Duration.ofDays(7);
+    private static final int MAX_MEMORY_ENTRIES = 1024;
+    private static final int FORMAT_VERSION = 2;
+    private static final String PLUGIN_ID = "org.example.safecode";
+    private static final Gson GSON = new Gson();
+
+    private final Path storeFile = PathManager.getSystemDir().resolve("safecode").resolve("recommendations.json");
+    private final Map<String, StoredEntry> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StoredEntry> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+    private Map<String, StoredEntry> disk;
+    private boolean dirty;
+
+    public static RecommendationCache getInstance() {
+        return ApplicationManager.getApplication().getService(RecommendationCache.class);
+    }
+
+    /**
+     * Builds the cache key of a scan result, or returns null if it has no vulnerability definition.
+     */
+    public static String keyOf(ScanResult result) {
+        return keyOf(result.getVulnerabilityDefinition());
+    }
+
+    /**
+     * Builds the cache key of a finding of the given definition, or returns null without a definition.
+     */
+    public static String keyOf(VulnerabilityDefinition definition) {
+        return definition != null ? definition.getId() : null;
+    }
+
+    /**
+     * Returns the cached recommendations for the key if they are younger than the TTL, otherwise null.
+     */
+    public synchronized List<String> get(String key) {
+        StoredEntry entry = memory.get(key);
+        if (entry == null) {
+            entry = getDisk().get(key);
+            if (entry == null) {
+                return null;
+            }
+            memory.put(key, entry);
+        }
+        return isExpired(entry) ? null : entry.recommendations;
+    }
+
+    /**
+     * Returns the last recommendations stored for the key regardless of their age, for use while the service is unreachable.
+     */
+    public synchronized List<String> getStale(String key) {
+        StoredEntry entry = memory.get(key);
+        if (entry == null) {
+            entry = getDisk().get(key);
+        }
+        return entry != null ? entry.recommendations : null;
+    }
+
+    public synchronized void put(String key, List<String> recommendations) {
+        StoredEntry entry = new StoredEntry(List.copyOf(recommendations), System.currentTimeMillis());
+        memory.put(key, entry);
+        getDisk().put(key, entry);
+        dirty = true;
+    }
+
+    /**
+     * Writes the second level to disk if it changed since it was loaded or last saved.
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            Files.createDirectories(storeFile.getParent());
+            Path tempFile = storeFile.resolveSibling(storeFile.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                GSON.toJson(new StoredCache(FORMAT_VERSION, getPluginVersion(), disk), writer);
+            }
+            Files.move(tempFile, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not write recommendation cache {}: {}", storeFile, e.getMessage());
+        }
+    }
+
+    private Map<String, StoredEntry> getDisk() {
+        if (disk == null) {
+            disk = load();
+        }
+        return disk;
+    }
+
+    private Map<String, StoredEntry> load() {
+        if (!Files.exists(storeFile)) {
+            return new HashMap<>();
+        }
+        try (Reader reader = Files.newBufferedReader(storeFile, StandardCharsets.UTF_8)) {
+            StoredCache stored = GSON.fromJson(reader, StoredCache.class);
+            if (stored == null || stored.formatVersion != FORMAT_VERSION
+                    || !getPluginVersion().equals(stored.pluginVersion) || stored.entries == null) {
+                log.info("Discarding recommendation cache written by another plugin version");
+                return new HashMap<>();
+            }
+            log.info("Loaded {} cached recommendations", stored.entries.size());
+            return new HashMap<>(stored.entries);
+        } catch (Exception e) {
+            log.warn("Could not read recommendation cache {}: {}", storeFile, e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    private static boolean isExpired(StoredEntry entry) {
+        return System.currentTimeMillis() - entry.storedAt > TTL.toMillis();
+    }
+
+    private static String getPluginVersion() {
+        IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        return plugin != null ? plugin.getVersion() : "";
+    }
+
+    private record StoredEntry(List<String> recommendations, long storedAt) {
+    }
+
+    private record StoredCache(int formatVersion, String pluginVersion, Map<String, StoredEntry> entries) {
+    }
+}
@@ -1,80 +1,173 @@
 package org.example.safecode.recomendations;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.ScanResultTable;
 import org.example.safecode.models.response.CodeAnalysisResponseDto;
 import org.example.safecode.models.response.Recommendation;
 
 import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class RecommendationEngine {
+    private static final int MAX_ISSUES_PER_REQUEST = 50;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Shared by all scans so connections to the recommendation service are kept alive and reused
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .executor(AppExecutorUtil.getAppExecutorService())
+            .build();
+    private static final Gson GSON = new Gson();
+    private static final String RECOMMENDATION_SERVICE_URI = loadRecommendationServiceUri();
 
     /**
-     * Generates recommendations for the given scan results.
+     * Requests recommendations for the given scan results without blocking. Results are first looked up in the
+     * {@link RecommendationCache}; the remaining ones are deduplicated by definition ID, so the service is asked
+     * about every vulnerability definition once, in requests of at most {@value #MAX_ISSUES_PER_REQUEST} issues that are
+     * sent concurrently. When a request fails, expired cache entries stand in for the service.
      *
-     * @param results List of scan results.
-     * @return List of scan results with recommendations.
+     * @param results The scan results of a whole scan.
+     * @return A future with the recommendations per cache key, see {@link RecommendationCache#keyOf}. The future
+     * always completes normally.
      */
-    public List<ScanResult> generateRecommendations(List<ScanResult> results) {
-        log.info("Class: {}, Method: {} - Generating recommendations for scan results.", this.getClass().getSimpleName(), "generateRecommendations");
-        final String recommendationServiceUri = getRecommendationServiceUri();
-
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPost request = new HttpPost(recommendationServiceUri);
-            request.addHeader("Content-Type", "application/json");
+    public CompletableFuture<Map<String, List<String>>> fetchRecommendations(Collection<ScanResult> results) {
+        log.info("Class: {}, Method: {} - Generating recommendations for scan results.", this.getClass().getSimpleName(), "fetchRecommendations");
+        RecommendationCache cache = RecommendationCache.getInstance();
 
-            Map<String, Object> jsonMap = Map.of("issues", results);
+        Map<String, List<String>> recommendations = new ConcurrentHashMap<>();
+        Map<String, ScanResult> missingByKey = new LinkedHashMap<>();
+        for (ScanResult result : results) {
+            String key = RecommendationCache.keyOf(result);
+            if (key == null || recommendations.containsKey(key) || missingByKey.containsKey(key)) {
+                continue;
+            }
+            List<String> cached = cache.get(key);
+            if (cached != null) {
+                recommendations.put(key, cached);
+            } else {
+                missingByKey.put(key, result);
+            }
+        }
+        log.info("Class: {}, Method: {} - {} recommendations cached, {} to request.", this.getClass().getSimpleName(),
+                "fetchRecommendations", recommendations.size(), missingByKey.size());
+        if (missingByKey.isEmpty()) {
+            return CompletableFuture.completedFuture(recommendations);
+        }
 
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            String jsonPayload = gson.toJson(jsonMap);
-            log.debug("Class: {}, Method: {} - JSON payload: {}", this.getClass().getSimpleName(), "generateRecommendations", jsonPayload);
+        List<String> keys = new ArrayList<>(missingByKey.keySet());
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (int start = 0; start < keys.size(); start += MAX_ISSUES_PER_REQUEST) {
+            List<String> chunkKeys = keys.subList(start, Math.min(start + MAX_ISSUES_PER_REQUEST, keys.size()));
+            List<ScanResult> chunk = new ArrayList<>(chunkKeys.size());
+            for (String key : chunkKeys) {
+                chunk.add(missingByKey.get(key));
+            }
+            // Serialise now, while the results are not yet shared with the UI
+            String jsonPayload = GSON.toJson(Map.of("issues", chunk));
+            requests.add(sendRequest(jsonPayload).thenAccept(byId -> {
+                for (ScanResult issue : chunk) {
+                    String key = RecommendationCache.keyOf(issue);
+                    List<String> fetched = byId != null ? byId.get(issue.getVulnerabilityDefinition().getId()) : null;
+                    if (fetched != null) {
+                        cache.put(key, fetched);
+                        recommendations.put(key, fetched);
+                    } else if (byId == null) {
+                        // Service unreachable: fall back to whatever was cached before, however old
+                        List<String> stale = cache.getStale(key);
+                        if (stale != null) {
+                            recommendations.put(key, stale);
+                        }
+                    }
+                }
+            }));
+        }
 
-            StringEntity entity = new StringEntity(jsonPayload);
-            request.setEntity(entity);
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            cache.save();
+            return recommendations;
+        });
+    }
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                String responseBody = EntityUtils.toString(response.getEntity());
-                log.debug("Class: {}, Method: {} - Response body: {}", this.getClass().getSimpleName(), "generateRecommendations", responseBody);
+    /**
+     * Fills in the fetched recommendations on all scan results with a matching cache key.
+     * Results without recommendations from the service keep their current ones.
+     */
+    public static void applyRecommendations(ScanResultTable results, Map<String, List<String>> recommendations) {
+        for (int row = 0; row < results.getResultCount(); row++) {
+            String key = RecommendationCache.keyOf(results.getVulnerabilityDefinition(row));
+            List<String> values = key != null ? recommendations.get(key) : null;
+            if (values != null) {
+                results.setRecommendations(row, values);
+            }
+        }
+    }
 
-                Gson responseGson = new Gson();
-                CodeAnalysisResponseDto responseDto = responseGson.fromJson(responseBody, CodeAnalysisResponseDto.class);
-                log.info("Class: {}, Method: {} - Mapped Response: {}", this.getClass().getSimpleName(), "generateRecommendations", responseDto);
+    /**
+     * Posts one chunk of issues. The future completes with the recommendations per definition ID, or with null
+     * if the service could not be reached or answered with garbage.
+     */
+    private CompletableFuture<Map<String, List<String>>> sendRequest(String jsonPayload) {
+        log.debug("Class: {}, Method: {} - JSON payload: {}", this.getClass().getSimpleName(), "sendRequest", jsonPayload);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(RECOMMENDATION_SERVICE_URI))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
+                .build();
 
-                Map<Integer, List<String>> recommendationMap = responseDto.getRecommendations().stream()
-                        .collect(Collectors.toMap(
-                                Recommendation::getId,
-                                Recommendation::getRecommendations,
-                                (existing, replacement) -> {
-                                    existing.addAll(replacement);
-                                    return existing;
-                                }
-                        ));
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::parseResponse)
+                .exceptionally(ex -> {
+                    log.error("Class: {}, Method: {} - Error generating recommendations: ", this.getClass().getSimpleName(), "sendRequest", ex);
+                    return null;
+                });
+    }
 
-                for (ScanResult result : results) {
-                    Integer vulnerabilityId = Integer.parseInt(result.getVulnerabilityDefinition().getId());
-                    if (recommendationMap.containsKey(vulnerabilityId)) {
-                        result.setRecommendations(recommendationMap.get(vulnerabilityId));
-                    }
-                }
-                return results;
+    /**
+     * Returns the recommendations per definition ID, or null for a failed request or an empty answer, so the
+     * caller falls back to stale cache entries. Recommendations repeated for the same ID are kept once.
+     */
+    private Map<String, List<String>> parseResponse(HttpResponse<String> response) {
+        String responseBody = response.body();
+        log.debug("Class: {}, Method: {} - Response body: {}", this.getClass().getSimpleName(), "parseResponse", responseBody);
+        if (response.statusCode() / 100 != 2 || responseBody == null || responseBody.isBlank()) {
+            log.warn("Class: {}, Method: {} - Recommendation service answered with status {}", this.getClass().getSimpleName(),
+                    "parseResponse", response.statusCode());
+            return null;
+        }
+        CodeAnalysisResponseDto responseDto = GSON.fromJson(responseBody, CodeAnalysisResponseDto.class);
+        if (responseDto == null || responseDto.getRecommendations() == null) {
+            return null;
+        }
+        Map<String, Set<String>> recommendations = new HashMap<>();
+        for (Recommendation recommendation : responseDto.getRecommendations()) {
+            if (recommendation.getRecommendations() != null) {
+                recommendations.computeIfAbsent(String.valueOf(recommendation.getId()), key -> new LinkedHashSet<>())
+                        .addAll(recommendation.getRecommendations());
             }
-        } catch (Exception ex) {
-            log.error("Class: {}, Method: {} - Error generating recommendations: ", this.getClass().getSimpleName(), "generateRecommendations", ex);
         }
-        return results;
+        Map<String, List<String>> byId = new HashMap<>();
+        recommendations.forEach((id, values) -> byId.put(id, List.copyOf(values)));
+        return byId;
     }
 
     /**
@@ -82,19 +175,22 @@ public class RecommendationEngine {
      *
      * @return Recommendation service URI.
      */
-    private String getRecommendationServiceUri() {
-        log.info("Class: {}, Method: {} - Retrieving recommendation service URI.", this.getClass().getSimpleName(), "getRecommendationServiceUri");
+    private static String loadRecommendationServiceUri() {
+        log.info("Class: {}, Method: {} - Retrieving recommendation service URI.", RecommendationEngine.class.getSimpleName(), "loadRecommendationServiceUri");
         Properties properties = new Properties();
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("application.properties")) {
+        try (InputStream inputStream = RecommendationEngine.class.getClassLoader().getResourceAsStream("application.properties")) {
             if (inputStream == null) {
                 throw new RuntimeException("Properties file not found in resources.");
             }
 
             properties.load(inputStream);
-            return properties.getProperty("recommendation.service");
+            String uri = properties.getProperty("recommendation.service");
+            if (uri != null) {
+                return uri;
+            }
         } catch (Exception ex) {
-            log.error("Class: {}, Method: {} - Error loading properties file: ", this.getClass().getSimpleName(), "getRecommendationServiceUri", ex);
+            log.error("Class: {}, Method: {} - Error loading properties file: ", RecommendationEngine.class.getSimpleName(), "loadRecommendationServiceUri", ex);
         }
         return "http://localhost:8080/api/v1/code-analysis/check"; // Backup URI
     }
-}
\ No newline at end of file
+}
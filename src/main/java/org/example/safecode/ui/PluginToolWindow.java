@@ -10,7 +10,9 @@ import com.intellij.openapi.wm.ToolWindowFactory;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.content.Content;
 import com.intellij.ui.content.ContentFactory;
+import org.example.safecode.metrics.ScanProfile;
 import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.ScanResultTable;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -19,8 +21,6 @@ import javax.swing.plaf.basic.BasicSplitPaneDivider;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import java.awt.*;
-import java.util.List;
-import java.util.Map;
 
 public class PluginToolWindow implements ToolWindowFactory {
     private static PluginToolWindow instance;
@@ -29,10 +29,13 @@ public class PluginToolWindow implements ToolWindowFactory {
     private DefaultTreeModel treeModel;
     private JTree resultTree;
     private JPanel detailsPanel;
+    private ScanProfilePanel profilePanel;
+    private Project project;
 
 
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        this.project = project;
         JPanel toolWindowContent = new JPanel(new BorderLayout());
 
         root = new DefaultMutableTreeNode("Scan Results");
@@ -50,8 +53,8 @@ public class PluginToolWindow implements ToolWindowFactory {
             }
 
             Object userObject = selectedNode.getUserObject();
-            if (userObject instanceof ScanResult) {
-                ScanResult result = (ScanResult) userObject;
+            if (userObject instanceof ScanResultTable.Row) {
+                ScanResult result = ((ScanResultTable.Row) userObject).toScanResult();
                 navigateToLine(project, result);
                 DetailsPanel.showDetailsPanel(result, project, detailsPanel);
             }
@@ -83,9 +86,12 @@ public class PluginToolWindow implements ToolWindowFactory {
         toolWindowContent.add(splitPane, BorderLayout.CENTER);
 
         ContentFactory contentFactory = ContentFactory.getInstance();
-        Content content = contentFactory.createContent(toolWindowContent, "", false);
+        Content content = contentFactory.createContent(toolWindowContent, "Results", false);
         toolWindow.getContentManager().addContent(content);
 
+        profilePanel = new ScanProfilePanel();
+        toolWindow.getContentManager().addContent(contentFactory.createContent(profilePanel.getComponent(), "Scan Profile", false));
+
         instance = this;
     }
 
@@ -151,29 +157,26 @@ public class PluginToolWindow implements ToolWindowFactory {
         return instance;
     }
 
-    public void setScanResults(Map<String, List<ScanResult>> resultsByFile) {
+    public void setScanResults(ScanResultTable results) {
         root.removeAllChildren(); // Clear the tree root
 
         // Update the root node to show the overall count of issues and files
-        int totalIssues = resultsByFile.values().stream().mapToInt(List::size).sum();
-        int totalFiles = resultsByFile.size();
-        String rootLabel = String.format("Found %d issues in %d files", totalIssues, totalFiles);
+        String rootLabel = String.format("Found %d issues in %d files", results.getResultCount(), results.getFileCount());
         root.setUserObject(rootLabel);
 
         // Add file nodes with issue counts
-        for (Map.Entry<String, List<ScanResult>> entry : resultsByFile.entrySet()) {
-            String filePath = entry.getKey();
-            String fileName = extractFileName(filePath); // Extract the file name from the path
-            List<ScanResult> fileResults = entry.getValue();
+        for (int file = 0; file < results.getFileCount(); file++) {
+            String fileName = extractFileName(results.getFile(file)); // Extract the file name from the path
+            int start = results.getFileStart(file);
+            int end = results.getFileEnd(file);
 
             // Update file node label with issue count
-            String fileLabel = String.format("%s (%d issues)", fileName, fileResults.size());
+            String fileLabel = String.format("%s (%d issues)", fileName, end - start);
             DefaultMutableTreeNode fileNode = new DefaultMutableTreeNode(fileLabel);
 
-            // Add issue nodes under the file node with message and line number
-            for (ScanResult result : fileResults) {
-                DefaultMutableTreeNode resultNode = new DefaultMutableTreeNode(result);
-                fileNode.add(resultNode);
+            // Add issue nodes under the file node; they only hold a handle on the row
+            for (int row = start; row < end; row++) {
+                fileNode.add(new DefaultMutableTreeNode(new ScanResultTable.Row(results, row), false));
             }
             root.add(fileNode);
         }
@@ -182,6 +185,23 @@ public class PluginToolWindow implements ToolWindowFactory {
         treeModel.reload();
     }
 
+    /**
+     * Shows where the time of the last scan went in the "Scan Profile" tab.
+     */
+    public void setScanProfile(ScanProfile profile) {
+        profilePanel.setProfile(profile);
+    }
+
+    /**
+     * Re-renders the details panel for the currently selected result.
+     */
+    public void refreshDetails() {
+        DefaultMutableTreeNode selectedNode = (DefaultMutableTreeNode) resultTree.getLastSelectedPathComponent();
+        if (selectedNode != null && selectedNode.getUserObject() instanceof ScanResultTable.Row row) {
+            DetailsPanel.showDetailsPanel(row.toScanResult(), project, detailsPanel);
+        }
+    }
+
     private String extractFileName(String filePath) {
         int lastSeparatorIndex = filePath.lastIndexOf('/');
         return lastSeparatorIndex == -1 ? filePath : filePath.substring(lastSeparatorIndex + 1);
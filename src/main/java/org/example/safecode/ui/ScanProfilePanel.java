@@ -0,0 +1,75 @@
+package org.example.safecode.ui;
+
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.example.safecode.metrics.ScanProfile;
+import org.example.safecode.metrics.ScanProfiler;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * The "Scan Profile" tab: a per-file summary of the last scan, the rules by total time and the slowest files.
+ */
+public class ScanProfilePanel {
+    private static final String[] RULE_COLUMNS = {"Rule", "Total (ms)", "Mean / file (ms)", "p95 (ms)", "Max (ms)", "Findings"};
+    private static final String[] FILE_COLUMNS = {"File", "Wall (ms)", "CPU (ms)", "Allocated (KB)", "PSI nodes", "Findings"};
+
+    private final JPanel component = new JPanel(new BorderLayout());
+    private final JBLabel summary = new JBLabel("Run a scan to see where its time goes.");
+    private final DefaultTableModel ruleModel = createModel(RULE_COLUMNS);
+    private final DefaultTableModel fileModel = createModel(FILE_COLUMNS);
+
+    public ScanProfilePanel() {
+        summary.setBorder(new EmptyBorder(10, 10, 10, 10));
+        JSplitPane tables = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                new JBScrollPane(new JBTable(ruleModel)), new JBScrollPane(new JBTable(fileModel)));
+        tables.setResizeWeight(0.5);
+        tables.setDividerSize(2);
+        component.add(summary, BorderLayout.NORTH);
+        component.add(tables, BorderLayout.CENTER);
+    }
+
+    public JComponent getComponent() {
+        return component;
+    }
+
+    public void setProfile(ScanProfile profile) {
+        ScanProfile.Distribution wall = profile.wallNanos();
+        ScanProfile.Distribution cpu = profile.cpuNanos();
+        ScanProfile.Distribution allocated = profile.allocatedBytes();
+        summary.setText(String.format("<html>Scanned %d files in %s ms of worker time (%s ms CPU, %d MB allocated, %d PSI nodes, %d findings)."
+                        + "<br>Per file: median %s ms, p95 %s ms, max %s ms; median %d KB allocated, p95 %d KB.</html>",
+                profile.fileCount(), millis(wall.total()), millis(cpu.total()), allocated.total() / (1024 * 1024),
+                profile.visitedNodes().total(), profile.findings().total(),
+                millis(wall.p50()), millis(wall.p95()), millis(wall.max()), allocated.p50() / 1024, allocated.p95() / 1024));
+
+        ruleModel.setRowCount(0);
+        for (ScanProfile.RuleProfile rule : profile.rules()) {
+            ruleModel.addRow(new Object[]{rule.name(), millis(rule.totalNanos()), millis(rule.meanNanos()),
+                    millis(rule.p95Nanos()), millis(rule.maxNanos()), rule.findings()});
+        }
+
+        fileModel.setRowCount(0);
+        for (ScanProfiler.FileSample file : profile.slowestFiles()) {
+            fileModel.addRow(new Object[]{file.filePath(), millis(file.wallNanos()), millis(file.cpuNanos()),
+                    file.allocatedBytes() / 1024, file.visitedNodes(), file.findings()});
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    private static DefaultTableModel createModel(String[] columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+}
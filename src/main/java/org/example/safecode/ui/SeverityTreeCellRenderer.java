@@ -1,7 +1,7 @@
 package org.example.safecode.ui;
 
 import org.example.safecode.enums.VulnerabilitySeverity;
-import org.example.safecode.models.ScanResult;
+import org.example.safecode.models.ScanResultTable;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -21,12 +21,13 @@ public class SeverityTreeCellRenderer extends DefaultTreeCellRenderer {
             DefaultMutableTreeNode node = (DefaultMutableTreeNode) value;
             Object userObject = node.getUserObject();
 
-            if (userObject instanceof ScanResult) {
-                ScanResult result = (ScanResult) userObject;
+            if (userObject instanceof ScanResultTable.Row) {
+                ScanResultTable.Row row = (ScanResultTable.Row) userObject;
+                ScanResultTable results = row.table();
 
                 // Get severity with a fallback to MEDIUM if it's null
-                VulnerabilitySeverity severity = result.getVulnerabilityDefinition() != null
-                        ? result.getSeverity()
+                VulnerabilitySeverity severity = results.getVulnerabilityDefinition(row.index()) != null
+                        ? results.getSeverity(row.index())
                         : VulnerabilitySeverity.MEDIUM;
 
                 String severityLabel = severity != null ? severity.getLabel() : "Unknown";
@@ -35,7 +36,7 @@ public class SeverityTreeCellRenderer extends DefaultTreeCellRenderer {
                 // Build the HTML label with colored severity
                 String htmlLabel = String.format(
                         "<html><span style='background-color:%s; color:black; padding:2px; border-radius:3px;'>[%s]</span> %s (Line: %d)</html>",
-                        severityColor, severityLabel, result.getMessage(), result.getLineNumber()
+                        severityColor, severityLabel, results.getMessage(row.index()), results.getLineNumber(row.index())
                 );
 
                 label.setText(htmlLabel);
@@ -0,0 +1,157 @@
+package org.example.safecode.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.application.PathManager;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.enums.VulnerabilityType;
+import org.example.safecode.models.VulnerabilityDefinition;
+import org.example.safecode.performance.PerformanceImpact;
+import org.example.safecode.performance.PerformanceImpactsWrapper;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the definition files. The bundled definitions are compiled into a compact binary form at build time
+ * (see the compileDefinitions task in build.gradle.kts) and read here without any reflection; the JSON sources
+ * are only parsed when the binary form is missing, e.g. when running from sources without a Gradle build.
+ * <p>
+ * Users can override or add definitions by placing a JSON file of the same name in the safecode directory of
+ * the IDE config directory. Binary layout per file: magic, format version, entry count, then the entries.
+ * Strings are written as a presence flag followed by modified UTF-8, lists as a count (-1 for null) followed by
+ * their elements.
+ */
+@Slf4j
+final class DefinitionsReader {
+    private static final int MAGIC = 0x53434446; // "SCDF"
+    private static final int FORMAT_VERSION = 1;
+
+    @FunctionalInterface
+    private interface EntryReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private DefinitionsReader() {
+    }
+
+    static List<VulnerabilityDefinition> readVulnerabilityDefinitions() {
+        List<VulnerabilityDefinition> definitions = readBundled("vulnerabilities", in -> VulnerabilityDefinition.builder()
+                .id(readString(in))
+                .type(toVulnerabilityType(readString(in)))
+                .description(readString(in))
+                .compliance(readStringList(in))
+                .recommendations(readStringList(in))
+                .performanceImpactDetails(readStringList(in))
+                .build(), new TypeReference<>() {});
+        definitions.addAll(readOverrides("vulnerabilities", new TypeReference<>() {}));
+        return definitions;
+    }
+
+    static List<PerformanceImpactsWrapper> readPerformanceImpacts() {
+        List<PerformanceImpactsWrapper> impacts = readBundled("performance-impacts", in -> PerformanceImpactsWrapper.builder()
+                .id(readString(in))
+                .type(readString(in))
+                .recommendations(readStringList(in))
+                .performanceImpactOptions(readImpactOptions(in))
+                .build(), new TypeReference<>() {});
+        impacts.addAll(readOverrides("performance-impacts", new TypeReference<>() {}));
+        return impacts;
+    }
+
+    private static <T> List<T> readBundled(String name, EntryReader<T> entryReader, TypeReference<List<T>> jsonType) {
+        try (InputStream inputStream = DefinitionsReader.class.getClassLoader().getResourceAsStream("config/" + name + ".bin")) {
+            if (inputStream != null) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+                if (in.readInt() != MAGIC || in.readUnsignedShort() != FORMAT_VERSION) {
+                    throw new IOException("Unsupported format");
+                }
+                int count = in.readInt();
+                List<T> entries = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    entries.add(entryReader.read(in));
+                }
+                return entries;
+            }
+        } catch (Exception e) {
+            log.error("Error reading compiled {} definitions, falling back to JSON: {}", name, e.getMessage());
+        }
+
+        try (InputStream inputStream = DefinitionsReader.class.getClassLoader().getResourceAsStream("config/" + name + ".json")) {
+            if (inputStream != null) {
+                return new ArrayList<>(createMapper().readValue(inputStream, jsonType));
+            }
+            log.error("Definitions file {}.json not found", name);
+        } catch (Exception e) {
+            log.error("Error loading {} definitions: {}", name, e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Reads the user's override file, if any. Its entries are applied after the bundled ones, so they replace
+     * bundled entries with the same ID.
+     */
+    private static <T> List<T> readOverrides(String name, TypeReference<List<T>> jsonType) {
+        Path overrideFile = PathManager.getConfigDir().resolve("safecode").resolve(name + ".json");
+        if (!Files.isRegularFile(overrideFile)) {
+            return List.of();
+        }
+        try (InputStream inputStream = Files.newInputStream(overrideFile)) {
+            List<T> overrides = createMapper().readValue(inputStream, jsonType);
+            log.info("Loaded {} {} definitions from {}", overrides.size(), name, overrideFile);
+            return overrides;
+        } catch (Exception e) {
+            log.error("Error loading {} definitions from {}: {}", name, overrideFile, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static List<PerformanceImpact> readImpactOptions(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<PerformanceImpact> options = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            options.add(PerformanceImpact.builder()
+                    .id(readString(in))
+                    .impactLevel(readString(in))
+                    .description(readString(in))
+                    .details(readString(in))
+                    .build());
+        }
+        return options;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static List<String> readStringList(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static VulnerabilityType toVulnerabilityType(String name) {
+        return name != null ? VulnerabilityType.valueOf(name) : null;
+    }
+
+    private static ObjectMapper createMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
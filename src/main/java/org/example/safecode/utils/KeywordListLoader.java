@@ -0,0 +1,45 @@
+package org.example.safecode.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the named keyword lists used by the method-name and sensitive-data heuristics from config/keywords.json.
+ */
+@Slf4j
+public class KeywordListLoader {
+    public static final String ADMIN_ACTIONS = "adminActions";
+    public static final String SENSITIVE_METHODS = "sensitiveMethods";
+    public static final String PHI_KEYWORDS = "phiKeywords";
+    public static final String SENSITIVE_DATA = "sensitiveData";
+
+    private static final Map<String, List<String>> keywordLists = new HashMap<>();
+
+    static {
+        loadKeywordLists();
+    }
+
+    private static void loadKeywordLists() {
+        try (InputStream inputStream = KeywordListLoader.class.getClassLoader().getResourceAsStream("config/keywords.json")) {
+            if (inputStream != null) {
+                ObjectMapper mapper = new ObjectMapper();
+                keywordLists.putAll(mapper.readValue(inputStream, new TypeReference<Map<String, List<String>>>() {}));
+                log.info("Loaded {} keyword lists", keywordLists.size());
+            } else {
+                log.error("Keyword lists file not found");
+            }
+        } catch (Exception e) {
+            log.error("Error loading keyword lists: {}", e.getMessage());
+        }
+    }
+
+    public static List<String> getKeywords(String listName) {
+        return keywordLists.getOrDefault(listName, List.of());
+    }
+}
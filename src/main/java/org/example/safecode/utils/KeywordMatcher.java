@@ -0,0 +1,155 @@
+package org.example.safecode.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton that checks whether a text contains any of a fixed set of keywords in a single
+ * pass over the text. Build it once per word list and share it; instances are immutable and thread-safe.
+ */
+public final class KeywordMatcher {
+    private static final int ROOT = 0;
+
+    private final boolean ignoreCase;
+    // Per state: sorted transition characters and their target states
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    // True if a keyword ends in this state or in any state on its failure chain
+    private final boolean[] accepting;
+
+    private KeywordMatcher(boolean ignoreCase, Collection<String> keywords) {
+        this.ignoreCase = ignoreCase;
+
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        terminal.add(false);
+
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = fold(keyword.charAt(i));
+                int index = chars.get(state).indexOf(String.valueOf(c));
+                if (index >= 0) {
+                    state = targets.get(state).get(index);
+                } else {
+                    int next = chars.size();
+                    chars.add(new StringBuilder());
+                    targets.add(new ArrayList<>());
+                    terminal.add(false);
+                    chars.get(state).append(c);
+                    targets.get(state).add(next);
+                    state = next;
+                }
+            }
+            terminal.set(state, true);
+        }
+
+        int stateCount = chars.size();
+        this.transitionChars = new char[stateCount][];
+        this.transitionTargets = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            sortTransitions(state, chars.get(state).toString().toCharArray(), targets.get(state));
+        }
+
+        // Breadth-first construction of the failure links
+        this.failure = new int[stateCount];
+        this.accepting = new boolean[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        for (int state = 0; state < stateCount; state++) {
+            accepting[state] = terminal.get(state);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] |= accepting[failure[state]];
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+                int fallback = failure[state];
+                while (fallback != ROOT && next(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = next(fallback, c);
+                failure[child] = target >= 0 && target != child ? target : ROOT;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Builds a case-sensitive matcher for the given keywords.
+     */
+    public static KeywordMatcher of(Collection<String> keywords) {
+        return new KeywordMatcher(false, keywords);
+    }
+
+    /**
+     * Builds a matcher that ignores the case of both the keywords and the searched text.
+     */
+    public static KeywordMatcher ignoringCase(Collection<String> keywords) {
+        return new KeywordMatcher(true, keywords);
+    }
+
+    /**
+     * Checks whether the text contains at least one of the keywords.
+     *
+     * @param text The text to search, may be null.
+     * @return true if any keyword occurs in the text.
+     */
+    public boolean containsAny(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            int target = next(state, c);
+            while (target < 0 && state != ROOT) {
+                state = failure[state];
+                target = next(state, c);
+            }
+            state = target < 0 ? ROOT : target;
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int next(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index >= 0 ? transitionTargets[state][index] : -1;
+    }
+
+    private void sortTransitions(int state, char[] keys, List<Integer> targets) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Character.compare(keys[a], keys[b]));
+        transitionChars[state] = new char[keys.length];
+        transitionTargets[state] = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            transitionChars[state][i] = keys[order[i]];
+            transitionTargets[state][i] = targets.get(order[i]);
+        }
+    }
+
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+}
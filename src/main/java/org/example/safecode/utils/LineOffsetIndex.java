@@ -0,0 +1,92 @@
+package org.example.safecode.utils;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+
+import java.util.Arrays;
+
+/**
+ * Maps text offsets of a file to line numbers with a binary search over the offsets at which its lines start.
+ * The index is built once from the file's text and cached on the PsiFile until the file changes, so all rules
+ * reporting findings in a file share it and no Document has to be loaded just to compute line numbers.
+ */
+public final class LineOffsetIndex {
+    private final int[] lineStarts;
+    private final int textLength;
+
+    LineOffsetIndex(CharSequence text) {
+        int[] starts = new int[16];
+        int count = 1; // Line 1 starts at offset 0
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                continue; // The line ends at the following \n
+            }
+            if (c == '\n' || c == '\r') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        this.lineStarts = Arrays.copyOf(starts, count);
+        this.textLength = text.length();
+    }
+
+    /**
+     * Returns the shared index of the file's current text.
+     */
+    public static LineOffsetIndex of(PsiFile psiFile) {
+        return CachedValuesManager.getCachedValue(psiFile, () ->
+                CachedValueProvider.Result.create(new LineOffsetIndex(psiFile.getViewProvider().getContents()), psiFile));
+    }
+
+    /**
+     * Retrieves the line number of the start of a given PsiElement in its file.
+     *
+     * @param element The PsiElement whose line number needs to be determined.
+     * @return The line number of the element (1-based), or -1 if it cannot be determined.
+     */
+    public static int getLineNumber(PsiElement element) {
+        return getLineNumber(element, element.getTextRange().getStartOffset());
+    }
+
+    /**
+     * Retrieves the line number of an offset in the file of a given PsiElement, e.g. its
+     * {@link PsiElement#getTextOffset() text offset}.
+     *
+     * @return The line number (1-based), or -1 if it cannot be determined.
+     */
+    public static int getLineNumber(PsiElement element, int offset) {
+        PsiFile file = element.getContainingFile();
+        return file != null ? of(file).getLineNumber(offset) : -1;
+    }
+
+    /**
+     * Returns the 1-based line number of a text offset, or -1 for a negative offset.
+     */
+    public int getLineNumber(int offset) {
+        if (offset < 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(lineStarts, offset);
+        // Not found: insertion point - 1 is the line containing the offset
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the text range of a 1-based line without its trailing {@code \n} or {@code \r}, or null if the file
+     * has no such line.
+     */
+    public TextRange getLineRange(int lineNumber) {
+        if (lineNumber < 1 || lineNumber > lineStarts.length) {
+            return null;
+        }
+        int start = lineStarts[lineNumber - 1];
+        int end = lineNumber < lineStarts.length ? lineStarts[lineNumber] - 1 : textLength;
+        return new TextRange(start, end);
+    }
+}
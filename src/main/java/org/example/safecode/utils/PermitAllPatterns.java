@@ -0,0 +1,87 @@
+package org.example.safecode.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The permitAll URL patterns of a project, compiled once per scan. Plain paths are answered with a set
+ * lookup; Ant-style patterns ({@code ?}, {@code *}, {@code **} and {@code {variable}}) are compiled to
+ * regular expressions the way Spring's AntPathMatcher interprets them.
+ */
+public final class PermitAllPatterns {
+    public static final PermitAllPatterns NONE = new PermitAllPatterns(Set.of());
+
+    private final Set<String> patterns;
+    private final Set<String> exactPaths = new HashSet<>();
+    private final List<Pattern> wildcardPatterns = new ArrayList<>();
+
+    public PermitAllPatterns(Collection<String> patterns) {
+        this.patterns = Set.copyOf(patterns);
+        for (String pattern : this.patterns) {
+            if (isWildcard(pattern)) {
+                wildcardPatterns.add(Pattern.compile(toRegex(pattern)));
+            } else {
+                exactPaths.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * Returns the raw patterns, e.g. for fingerprinting the scan setup.
+     */
+    public Set<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Checks whether the given request path is opened by any of the patterns.
+     */
+    public boolean matches(String path) {
+        if (exactPaths.contains(path)) {
+            return true;
+        }
+        for (Pattern pattern : wildcardPatterns) {
+            if (pattern.matcher(path).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWildcard(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+    }
+
+    private static String toRegex(String antPattern) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < antPattern.length()) {
+            char c = antPattern.charAt(i);
+            if (antPattern.startsWith("/**", i)) {
+                // "/**" also matches the path without the trailing segments
+                regex.append("(/.*)?");
+                i += 3;
+            } else if (antPattern.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+                i++;
+            } else if (c == '?') {
+                regex.append("[^/]");
+                i++;
+            } else if (c == '{' && antPattern.indexOf('}', i) > i) {
+                regex.append("[^/]+");
+                i = antPattern.indexOf('}', i) + 1;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+                i++;
+            }
+        }
+        return regex.toString();
+    }
+}
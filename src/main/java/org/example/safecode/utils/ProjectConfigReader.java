@@ -13,8 +13,8 @@ import java.util.Collections;
 import java.util.Map;
 
 public class ProjectConfigReader {
-    private static final String CONFIG_FILE_NAME = "safecode-config.json";
-    private static final String RESOURCES_FOLDER = "resources";
+    public static final String CONFIG_FILE_NAME = "safecode-config.json";
+    static final String RESOURCES_FOLDER = "resources";
 
     /**
      * Reads the JSON configuration file from the resources folder of the project.
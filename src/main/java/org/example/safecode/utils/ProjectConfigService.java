@@ -0,0 +1,121 @@
+package org.example.safecode.utils;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.example.safecode.models.ProjectConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves and parses the project's safecode-config.json once and hands out the cached result.
+ * The cache is dropped whenever a config file in the project changes, or when a {@code resources} directory
+ * in the project is created, moved, renamed or deleted, since that may change which resources folder the config
+ * is found in. Events outside the project, e.g. in build output or other open projects, are ignored.
+ */
+@Slf4j
+@Service(Service.Level.PROJECT)
+public final class ProjectConfigService implements Disposable {
+    private final Project project;
+    private volatile ProjectConfig config;
+    // Bumped on every invalidation, so a load that raced with one does not store the stale config
+    private final AtomicLong generation = new AtomicLong();
+    private final Object loadLock = new Object();
+
+    public ProjectConfigService(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (affectsConfig(event)) {
+                        log.info("SafeCode config changed, reloading on next scan");
+                        generation.incrementAndGet();
+                        config = null;
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    public static ProjectConfigService getInstance(Project project) {
+        return project.getService(ProjectConfigService.class);
+    }
+
+    /**
+     * Returns an immutable snapshot of the project config, loading it only if it changed since the last call.
+     */
+    public ProjectConfig getConfig() {
+        ProjectConfig current = config;
+        if (current != null) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = config;
+            if (current == null) {
+                long loadedGeneration = generation.get();
+                current = ProjectConfigReader.loadConfigOrDefault(project).snapshot();
+                if (generation.get() == loadedGeneration) {
+                    config = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    private boolean affectsConfig(VFileEvent event) {
+        List<String> paths = new ArrayList<>(2);
+        paths.add(event.getPath());
+        if (event instanceof VFileMoveEvent move) {
+            paths.add(move.getOldPath());
+        } else if (event instanceof VFilePropertyChangeEvent property && property.isRename()) {
+            paths.add(property.getOldPath());
+        }
+        boolean directoryEvent = !(event instanceof VFileContentChangeEvent)
+                && (event.getFile() == null || event.getFile().isDirectory());
+        for (String path : paths) {
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            boolean relevant = ProjectConfigReader.CONFIG_FILE_NAME.equals(name)
+                    || directoryEvent && ProjectConfigReader.RESOURCES_FOLDER.equals(name);
+            if (relevant && isInProject(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isInProject(String path) {
+        if (project.isDisposed()) {
+            return false;
+        }
+        String basePath = project.getBasePath();
+        if (basePath != null && FileUtil.isAncestor(basePath, path, false)) {
+            return true;
+        }
+        for (VirtualFile root : ProjectRootManager.getInstance(project).getContentRoots()) {
+            if (FileUtil.isAncestor(root.getPath(), path, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void dispose() {
+        config = null;
+    }
+}
@@ -1,12 +1,9 @@
 package org.example.safecode.utils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.example.safecode.enums.VulnerabilityType;
 import org.example.safecode.models.VulnerabilityDefinition;
 
-import java.io.InputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,22 +17,10 @@ public class VulnerabilityDefinitionLoader {
     }
 
     private static void loadDefinitions() {
-        try (InputStream inputStream = VulnerabilityDefinitionLoader.class.getClassLoader().getResourceAsStream("config/vulnerabilities.json")) {
-            if (inputStream != null) {
-                ObjectMapper mapper = new ObjectMapper();
-                List<VulnerabilityDefinition> loadedDefinitions = mapper.readValue(
-                        inputStream, new TypeReference<>() {}
-                );
-                for (VulnerabilityDefinition def : loadedDefinitions) {
-                    definitions.put(def.getId(), def);
-                }
-                log.info("Loaded {} vulnerability definitions", definitions.size());
-            } else {
-                log.error("Vulnerability definitions file not found");
-            }
-        } catch (Exception e) {
-            log.error("Error loading vulnerability definitions: {}", e.getMessage());
+        for (VulnerabilityDefinition def : DefinitionsReader.readVulnerabilityDefinitions()) {
+            definitions.put(def.getId(), def);
         }
+        log.info("Loaded {} vulnerability definitions", definitions.size());
     }
 
     public static VulnerabilityDefinition getDefinitionById(String id) {
@@ -0,0 +1,150 @@
+package org.example.safecode.detection.taint;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.example.safecode.detection.ScanContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Checks the sources, sanitizers and sinks of {@link TaintAnalyzer} on small sources in a light project.
+ */
+public class TaintAnalyzerTest extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final String[] STUBS = {
+            "package javax.servlet.http; public interface HttpServletRequest { String getParameter(String name); }",
+            "package javax.persistence.criteria; public interface CriteriaQuery<T> {}",
+            "package javax.persistence; public interface Query { Query setParameter(String name, Object value); }",
+            "package javax.persistence; public interface EntityManager { Query createQuery(String q); "
+                    + "Query createQuery(javax.persistence.criteria.CriteriaQuery<?> q); Query createNativeQuery(String q); }",
+            "package app; public interface Executor { void execute(Runnable task); }",
+    };
+
+    @Override
+    protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+        return JAVA_17;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (String stub : STUBS) {
+            myFixture.addClass(stub);
+        }
+    }
+
+    public void testParameterConcatenatedIntoQueryIsSink() {
+        List<TaintedSink> sinks = analyze("find", """
+                public Object find(javax.persistence.EntityManager em, String name) {
+                    return em.createQuery("SELECT u FROM User u WHERE u.name = '" + name + "'");
+                }
+                """);
+        assertEquals(1, sinks.size());
+        assertEquals(TaintSink.SQL_QUERY, sinks.get(0).sink());
+        assertEquals(TaintAnalyzer.parameterLabel(1), sinks.get(0).labels());
+        assertFalse(sinks.get(0).isUntrusted());
+    }
+
+    public void testRequestInputFlowsThroughBuilderIntoQuery() {
+        List<TaintedSink> sinks = analyze("find", """
+                public Object find(javax.persistence.EntityManager em, javax.servlet.http.HttpServletRequest request) {
+                    StringBuilder sql = new StringBuilder("SELECT * FROM users WHERE id = ");
+                    String id = request.getParameter("id").trim();
+                    sql.append(id);
+                    return em.createNativeQuery(sql.toString());
+                }
+                """);
+        assertEquals(1, sinks.size());
+        assertTrue(sinks.get(0).isUntrusted());
+    }
+
+    public void testBoundParameterIsSafe() {
+        assertEmpty(analyze("find", """
+                public Object find(javax.persistence.EntityManager em, String name) {
+                    return em.createQuery("SELECT u FROM User u WHERE u.name = :name").setParameter("name", name);
+                }
+                """));
+    }
+
+    public void testNumbersCannotCarrySql() {
+        assertEmpty(analyze("find", """
+                public Object find(javax.persistence.EntityManager em, long id) {
+                    return em.createQuery("SELECT u FROM User u WHERE u.id = " + id);
+                }
+                """));
+    }
+
+    public void testCriteriaQueryIsNoSink() {
+        assertEmpty(analyze("find", """
+                public Object find(javax.persistence.EntityManager em, javax.persistence.criteria.CriteriaQuery<?> query) {
+                    return em.createQuery(query);
+                }
+                """));
+    }
+
+    public void testQueryMethodNameOnOtherTypeIsNoSink() {
+        assertEmpty(analyze("run", """
+                public void run(app.Executor executor, Runnable task) {
+                    executor.execute(task);
+                }
+                """));
+    }
+
+    public void testRequestInputPassedToQueryBuildingCallee() {
+        List<TaintedSink> sinks = analyze("handle", """
+                public Object handle(javax.persistence.EntityManager em, javax.servlet.http.HttpServletRequest request) {
+                    return find(em, request.getParameter("name"));
+                }
+
+                private Object find(javax.persistence.EntityManager em, String name) {
+                    return em.createQuery("SELECT u FROM User u WHERE u.name = '" + name + "'");
+                }
+                """);
+        assertEquals(1, sinks.size());
+        assertEquals("find", sinks.get(0).callee().getName());
+        assertTrue(sinks.get(0).isUntrusted());
+    }
+
+    public void testRecursiveCycleIsSummarizedOnce() {
+        List<TaintedSink> sinks = analyze("handle", """
+                public Object handle(javax.persistence.EntityManager em, javax.servlet.http.HttpServletRequest request) {
+                    return even(em, request.getParameter("name"), 4);
+                }
+
+                private Object even(javax.persistence.EntityManager em, String name, int depth) {
+                    return depth == 0 ? em.createQuery("SELECT u FROM User u WHERE u.name = '" + name + "'")
+                            : odd(em, name, depth - 1);
+                }
+
+                private Object odd(javax.persistence.EntityManager em, String name, int depth) {
+                    return even(em, name, depth - 1);
+                }
+                """);
+        assertEquals(1, sinks.size());
+        assertTrue(sinks.get(0).isUntrusted());
+
+        // Callers outside the cycle get complete summaries of its members
+        TaintSummaryCache cache = TaintSummaryCache.getInstance(getProject());
+        PsiClass repository = myFixture.findClass("app.Repository");
+        for (String name : new String[]{"even", "odd"}) {
+            TaintSummaryCache.Entry entry = cache.getEntry(repository.findMethodsByName(name, false)[0]);
+            assertEquals(0, entry.incompleteIn());
+            assertTrue(entry.summary().sinksParameter(1, TaintSink.SQL_QUERY));
+        }
+    }
+
+    /**
+     * Adds a class with the given members and returns the sinks found in the named method.
+     */
+    private List<TaintedSink> analyze(String methodName, String members) {
+        PsiJavaFile file = (PsiJavaFile) myFixture.addFileToProject("app/Repository.java",
+                "package app;\n\npublic class Repository {\n" + members + "}\n");
+        PsiClass psiClass = file.getClasses()[0];
+        PsiMethod method = psiClass.findMethodsByName(methodName, false)[0];
+        return TaintAnalyzer.findTaintedSinks(method, new ScanContext(file));
+    }
+}